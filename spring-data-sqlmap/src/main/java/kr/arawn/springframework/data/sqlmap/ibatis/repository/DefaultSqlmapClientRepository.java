@@ -1,34 +1,76 @@
 package kr.arawn.springframework.data.sqlmap.ibatis.repository;
 
 import java.io.Serializable;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.InterceptingSqlMapClientTemplate;
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.RowCallbackRowHandler;
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.RowHandlerIterator;
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.RowHandlerPublisher;
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.SqlMapClientUtils;
+import kr.arawn.springframework.data.sqlmap.repository.CloseableIterator;
+import kr.arawn.springframework.data.sqlmap.repository.Keyset;
+import kr.arawn.springframework.data.sqlmap.repository.RowCallback;
+import kr.arawn.springframework.data.sqlmap.repository.Slice;
 import kr.arawn.springframework.data.sqlmap.repository.SqlmapRepository;
 import kr.arawn.springframework.data.sqlmap.repository.factory.SqlmapEntityInformation;
+import kr.arawn.springframework.data.sqlmap.repository.support.CountCache;
+import kr.arawn.springframework.data.sqlmap.repository.support.EntityCache;
+import kr.arawn.springframework.data.sqlmap.repository.support.EntitySnapshots;
+import kr.arawn.springframework.data.sqlmap.repository.support.InFlightQueryCoalescer;
+import kr.arawn.springframework.data.sqlmap.repository.support.SqlmapRepositoryContext;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementOperation;
+import kr.arawn.springframework.data.sqlmap.repository.support.WriteBehindUnitOfWork;
+import kr.arawn.springframework.data.sqlmap.repository.support.WriteBehindUnitOfWork.PendingWrite;
 import kr.arawn.springframework.data.sqlmap.repository.statement.StatementInformation;
+import kr.arawn.springframework.data.sqlmap.repository.statement.StatementInformation.StatementIdType;
 
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Order;
+import org.springframework.orm.ibatis.SqlMapClientCallback;
 import org.springframework.orm.ibatis.SqlMapClientTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
+import com.ibatis.sqlmap.client.SqlMapExecutor;
+
 
 @Repository
 public class DefaultSqlmapClientRepository<T, ID extends Serializable> implements
         SqlmapRepository<T, Serializable> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DefaultSqlmapClientRepository.class);
+    
+    public static final int DEFAULT_BATCH_SIZE = 500;
 
     private SqlMapClientTemplate sqlMapClientTemplate;
     private SqlmapEntityInformation<T, ID> entityInformation;
     private StatementInformation statement;
     
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private Boolean batchableInsert;
+    
+    private SqlmapRepositoryContext context = new SqlmapRepositoryContext();
+    
     public DefaultSqlmapClientRepository(SqlMapClientTemplate sqlMapClientTemplate, 
             SqlmapEntityInformation<T, ID> entityInformation, StatementInformation statement) {
         Assert.notNull(sqlMapClientTemplate);
@@ -42,74 +84,577 @@ public class DefaultSqlmapClientRepository<T, ID extends Serializable> implement
     protected SqlMapClientTemplate getSqlMapClientTemplate() {
         return sqlMapClientTemplate;
     }
+    
+    public void setBatchSize(int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+        this.batchSize = batchSize;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setContext(SqlmapRepositoryContext context) {
+        Assert.notNull(context);
+        this.context = context;
+    }
+    
+    public SqlmapRepositoryContext getContext() {
+        return context;
+    }
 
-    public T save(T entity) {
-        if(entityInformation.isNew(entity)) {
+    /**
+     * save, delete 를 현재 트랜잭션이 끝날 때까지 모아서 실행한다. context 를 설정한 후에 호출해야 한다.
+     * 
+     * @see WriteBehindUnitOfWork
+     */
+    public void enableWriteBehind() {
+        context.setUnitOfWork(new WriteBehindUnitOfWork(new WriteBehindUnitOfWork.Flusher() {
             @SuppressWarnings("unchecked")
-            ID id = (ID) getSqlMapClientTemplate().insert(statement.insert(), entity);
-            if(id != null)
-                entityInformation.setId(entity, id);
+            public void flush(List<Object> inserts, List<Object> updates, List<Object> deletes) {
+                if(!inserts.isEmpty())
+                    insertInBatch((List<T>) (List<?>) inserts);
+                if(!updates.isEmpty())
+                    updateInBatch((List<T>) (List<?>) updates);
+                if(!deletes.isEmpty())
+                    deleteInBatch((List<T>) (List<?>) deletes);
+            }
+        }));
+    }
+    
+    /**
+     * write-behind 가 설정되어 있고 트랜잭션 안이면 쓰기를 모아둘 unitOfWork, 아니면 null
+     */
+    protected WriteBehindUnitOfWork getActiveUnitOfWork() {
+        WriteBehindUnitOfWork unitOfWork = context.getUnitOfWork();
+        return unitOfWork != null && unitOfWork.isActive() ? unitOfWork : null;
+    }
+    
+    public void flush() {
+        context.flushPendingWrites();
+    }
+
+    public T save(T entity) {
+        WriteBehindUnitOfWork unitOfWork = getActiveUnitOfWork();
+        if(unitOfWork != null) {
+            boolean isNew = entityInformation.isNew(entity);
+            if(isNew)
+                entityInformation.assignId(entity);
+            
+            unitOfWork.save(entityInformation.getId(entity), entity, isNew);
+            return entity;
         }
-        else
-            getSqlMapClientTemplate().update(statement.update(), entity);
+        
+        if(entityInformation.isNew(entity))
+            insert(entity);
+        else {
+            Map<String, Object> dirtyProperties = getDirtyProperties(entity);
+            if(dirtyProperties != null && dirtyProperties.isEmpty()) {
+                logger.debug("{} [{}] 변경된 property 가 없어 update 를 생략합니다.", statement.update(), entityInformation.getId(entity));
+                return entity;
+            }
+            
+            if(dirtyProperties != null && statement.hasStatement(StatementIdType.update_dirty))
+                getSqlMapClientTemplate().update(statement.update_dirty(), dirtyProperties);
+            else
+                getSqlMapClientTemplate().update(statement.update(), entity);
+        }
+        
+        context.invalidate(Collections.singleton(entityInformation.getId(entity)));
         
         return entity;
     }
+    
+    protected void insert(T entity) {
+        entityInformation.assignId(entity);
+        
+        @SuppressWarnings("unchecked")
+        ID id = (ID) getSqlMapClientTemplate().insert(statement.insert(), entity);
+        if(id != null)
+            entityInformation.setId(entity, id);
+    }
 
     @SuppressWarnings("unchecked")
     public List<T> save(List<? extends T> entities) {
-        for(T entity : entities) {
-            save(entity);
-        }
+        saveInBatch(entities);
         
         return (List<T>) entities;
     }
     
     @SuppressWarnings("unchecked")
     public Iterable<T> save(Iterable<? extends T> entities) {
+        saveInBatch(entities);
+        
+        return (Iterable<T>) entities;
+    }
+    
+    protected void saveInBatch(Iterable<? extends T> entities) {
+        if(getActiveUnitOfWork() != null) {
+            for(T entity : entities) {
+                save(entity);
+            }
+            return;
+        }
+        
+        List<T> newEntities = new ArrayList<T>();
+        List<T> existingEntities = new ArrayList<T>();
         for(T entity : entities) {
-            save(entity);
+            if(entityInformation.isNew(entity))
+                newEntities.add(entity);
+            else
+                existingEntities.add(entity);
         }
         
-        return (Iterable<T>) entities;
+        if(!newEntities.isEmpty())
+            insertInBatch(newEntities);
+        
+        if(!existingEntities.isEmpty())
+            updateInBatch(existingEntities);
+    }
+    
+    protected void insertInBatch(List<T> entities) {
+        for(T entity : entities) {
+            entityInformation.assignId(entity);
+        }
+        
+        if(isBatchableInsert())
+            executeInBatch(statement.insert(), entities, StatementOperation.INSERT);
+        else
+            for(T entity : entities) {
+                insert(entity);
+            }
+        
+        context.invalidate(getIds(entities));
+    }
+    
+    /**
+     * 변경된 property 가 없는 entity 는 제외하고, update_dirty statement 가 선언되어 있으면
+     * snapshot 이 있는 entity 는 변경된 property 만 넘겨 실행한다.
+     */
+    protected void updateInBatch(List<T> entities) {
+        if(context.getEntitySnapshots() == null) {
+            executeInBatch(statement.update(), entities, StatementOperation.UPDATE);
+            context.invalidate(getIds(entities));
+            return;
+        }
+        
+        boolean dirtyStatement = statement.hasStatement(StatementIdType.update_dirty);
+        List<T> updated = new ArrayList<T>();
+        List<T> fullUpdates = new ArrayList<T>();
+        List<Map<String, Object>> dirtyUpdates = new ArrayList<Map<String, Object>>();
+        for(T entity : entities) {
+            Map<String, Object> dirtyProperties = getDirtyProperties(entity);
+            if(dirtyProperties != null && dirtyProperties.isEmpty())
+                continue;
+            
+            if(dirtyProperties != null && dirtyStatement)
+                dirtyUpdates.add(dirtyProperties);
+            else
+                fullUpdates.add(entity);
+            updated.add(entity);
+        }
+        
+        logger.debug("{} : {} of {} entities unchanged", new Object[] { statement.update(), entities.size() - updated.size(), entities.size() });
+        
+        if(!dirtyUpdates.isEmpty())
+            executeInBatch(statement.update_dirty(), dirtyUpdates, StatementOperation.UPDATE);
+        if(!fullUpdates.isEmpty())
+            executeInBatch(statement.update(), fullUpdates, StatementOperation.UPDATE);
+        if(!updated.isEmpty())
+            context.invalidate(getIds(updated));
+    }
+    
+    /**
+     * snapshot 과 다른 property 와 id, snapshot 이 없으면 null
+     */
+    protected Map<String, Object> getDirtyProperties(T entity) {
+        EntitySnapshots entitySnapshots = context.getEntitySnapshots();
+        if(entitySnapshots == null)
+            return null;
+        
+        Map<String, Object> dirtyProperties = entitySnapshots.getDirtyProperties(entity);
+        if(dirtyProperties != null && !dirtyProperties.isEmpty())
+            dirtyProperties.put(entityInformation.getIdPropertyName(), entityInformation.getId(entity));
+        
+        return dirtyProperties;
+    }
+    
+    /**
+     * entities 를 batchSize 단위로 나눠 JDBC batch 로 실행하고 chunk 별로 영향받은 row 수를 반환한다.
+     * insert 인 경우 selectKey 로 생성된 id 를 entity 에 기록한다.
+     * template 이 {@link InterceptingSqlMapClientTemplate} 이면 chunk 하나가 statement 실행 하나로 interceptor 에게 넘겨진다.
+     */
+    protected int[] executeInBatch(String statementId, List<? extends Object> parameters, StatementOperation operation) {
+        int[] chunkRows = new int[(parameters.size() + batchSize - 1) / batchSize];
+        for(int chunk = 0; chunk < chunkRows.length; chunk++) {
+            int from = chunk * batchSize;
+            chunkRows[chunk] = executeChunk(statementId, parameters.subList(from, Math.min(from + batchSize, parameters.size())), operation);
+            
+            logger.debug("{} batch chunk[{}] : {} rows affected", new Object[] { statementId, chunk, chunkRows[chunk] });
+        }
+        
+        return chunkRows;
+    }
+    
+    private int executeChunk(final String statementId, final List<? extends Object> chunk, final StatementOperation operation) {
+        SqlMapClientCallback<Integer> action = new SqlMapClientCallback<Integer>() {
+            @SuppressWarnings("unchecked")
+            public Integer doInSqlMapClient(SqlMapExecutor executor) throws SQLException {
+                executor.startBatch();
+                for(Object parameter : chunk) {
+                    if(operation == StatementOperation.INSERT) {
+                        ID id = (ID) executor.insert(statementId, parameter);
+                        if(id != null)
+                            entityInformation.setId((T) parameter, id);
+                    }
+                    else if(operation == StatementOperation.DELETE)
+                        executor.delete(statementId, parameter);
+                    else
+                        executor.update(statementId, parameter);
+                }
+                return executor.executeBatch();
+            }
+        };
+        
+        SqlMapClientTemplate template = getSqlMapClientTemplate();
+        Integer rows = template instanceof InterceptingSqlMapClientTemplate
+                ? ((InterceptingSqlMapClientTemplate) template).executeBatch(statementId, operation, chunk, action)
+                : template.execute(action);
+        
+        return rows == null ? 0 : rows;
+    }
+    
+    /**
+     * insert 후에 실행되는 selectKey(ex. CALL IDENTITY()) 는 batch 안에서 올바른 키를 반환하지 못하므로
+     * 이 경우에는 insert 를 batch 로 실행하지 않는다.
+     */
+    protected boolean isBatchableInsert() {
+        if(batchableInsert == null)
+            batchableInsert = !SqlMapClientUtils.isSelectKeyRunAfterInsert(
+                    getSqlMapClientTemplate().getSqlMapClient(), statement.insert());
+        
+        return batchableInsert;
     }
 
     public void delete(T entity) {
+        WriteBehindUnitOfWork unitOfWork = getActiveUnitOfWork();
+        if(unitOfWork != null) {
+            unitOfWork.delete(entityInformation.getId(entity), entity);
+            return;
+        }
+        
         getSqlMapClientTemplate().delete(statement.delete(), entity);
+        
+        context.invalidate(Collections.singleton(entityInformation.getId(entity)));
     }
 
     public void delete(List<? extends T> entities) {
+        delete((Iterable<? extends T>) entities);
+    }
+    
+    public void delete(Iterable<? extends T> entities) {
+        if(getActiveUnitOfWork() != null) {
+            for(T entity : entities) {
+                delete(entity);
+            }
+            return;
+        }
+        
+        deleteInBatch(entities);
+    }    
+    
+    /**
+     * deleteByIds statement 가 선언되어 있으면 id 목록을 batchSize 단위의 IN (...) 조건으로 삭제하고,
+     * 없으면 delete statement 를 JDBC batch 로 실행한다.
+     */
+    protected void deleteInBatch(Iterable<? extends T> entities) {
+        List<T> targets = new ArrayList<T>();
         for(T entity : entities) {
-            delete(entity);
+            targets.add(entity);
+        }
+        if(targets.isEmpty())
+            return;
+        
+        List<ID> ids = getIds(targets);
+        if(statement.hasStatement(StatementIdType.deleteByIds)) {
+            for(int from = 0; from < ids.size(); from += batchSize) {
+                Map<String, Object> params = getIdsParameters(ids.subList(from, Math.min(from + batchSize, ids.size())));
+                
+                int rows = getSqlMapClientTemplate().delete(statement.deleteByIds(), params);
+                logger.debug("{} chunk[{}] : {} rows affected", new Object[] { statement.deleteByIds(), from / batchSize, rows });
+            }
         }
+        else
+            executeInBatch(statement.delete(), targets, StatementOperation.DELETE);
+        
+        context.invalidate(ids);
     }
     
-    public void delete(Iterable<? extends T> entities) {
+    protected List<ID> getIds(List<? extends T> entities) {
+        List<ID> ids = new ArrayList<ID>(entities.size());
         for(T entity : entities) {
-            delete(entity);
+            ids.add(entityInformation.getId(entity));
         }
-    }    
+        
+        return ids;
+    }
 
     public void deleteAll() {
+        context.flushPendingWrites();
+        
         getSqlMapClientTemplate().delete(statement.deleteAll());
+        
+        context.invalidateAll();
     }
     
     @SuppressWarnings("unchecked")
     public T findOne(Serializable id) {
-        return (T) getSqlMapClientTemplate().queryForObject(statement.findOne(), id);
+        WriteBehindUnitOfWork unitOfWork = context.getUnitOfWork();
+        PendingWrite pending = unitOfWork == null ? null : unitOfWork.getPendingWrite(id);
+        if(pending != null)
+            return pending.getOperation() == StatementOperation.DELETE ? null : (T) pending.getEntity();
+        context.flushPendingWrites();
+        
+        EntityCache entityCache = context.getEntityCache();
+        if(entityCache == null)
+            return (T) context.snapshot(queryForObject(statement.findOne(), id));
+        
+        T entity = (T) entityCache.get(id);
+        if(entity != null)
+            return (T) context.snapshot(entity);
+        
+        long generation = entityCache.getGeneration();
+        entity = (T) context.snapshot(queryForObject(statement.findOne(), id));
+        if(context.isCachePopulatable())
+            entityCache.put(id, entity, generation);
+        
+        return entity;
+    }
+    
+    private Object queryForObject(final String statementId, final Object parameter) {
+        InFlightQueryCoalescer coalescer = context.getInFlightQueryCoalescer();
+        if(coalescer == null)
+            return getSqlMapClientTemplate().queryForObject(statementId, parameter);
+        
+        return coalescer.execute(statementId, parameter, new InFlightQueryCoalescer.Query() {
+            public Object execute() {
+                return getSqlMapClientTemplate().queryForObject(statementId, parameter);
+            }
+        });
     }
 
+    /**
+     * exists statement 가 선언되어 있으면 entity 를 조회하지 않고 존재 여부만 확인한다.
+     */
     public boolean exists(Serializable id) {
-        return getSqlMapClientTemplate().queryForObject(statement.findOne(), id) == null ? false : true;
+        WriteBehindUnitOfWork unitOfWork = context.getUnitOfWork();
+        PendingWrite pending = unitOfWork == null ? null : unitOfWork.getPendingWrite(id);
+        if(pending != null)
+            return pending.getOperation() != StatementOperation.DELETE;
+        context.flushPendingWrites();
+        
+        if(statement.hasStatement(StatementIdType.exists))
+            return getSqlMapClientTemplate().queryForObject(statement.exists(), id) == null ? false : true;
+        
+        return findOne(id) == null ? false : true;
+    }
+    
+    /**
+     * existsAll statement 가 선언되어 있으면 batchSize 단위의 IN (...) 조건으로 존재하는 id 를 한번에 조회하고,
+     * 없으면 id 마다 exists 를 호출한다.
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Serializable> existsAll(Iterable<Serializable> ids) {
+        context.flushPendingWrites();
+        
+        List<Serializable> targets = new ArrayList<Serializable>();
+        for(Serializable id : ids) {
+            targets.add(id);
+        }
+        
+        Set<Serializable> result = new LinkedHashSet<Serializable>();
+        if(statement.hasStatement(StatementIdType.existsAll)) {
+            for(int from = 0; from < targets.size(); from += batchSize) {
+                Map<String, Object> params = getIdsParameters(targets.subList(from, Math.min(from + batchSize, targets.size())));
+                result.addAll(getSqlMapClientTemplate().queryForList(statement.existsAll(), params));
+            }
+        }
+        else {
+            for(Serializable id : targets) {
+                if(exists(id))
+                    result.add(id);
+            }
+        }
+        
+        return result;
+    }
+    
+    protected Map<String, Object> getIdsParameters(List<?> ids) {
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("ids", ids);
+        
+        return params;
     }
 
     @SuppressWarnings("unchecked")
     public List<T> findAll() {
-        return getSqlMapClientTemplate().queryForList(statement.findAll());
+        context.flushPendingWrites();
+        
+        return context.snapshot(getSqlMapClientTemplate().queryForList(statement.findAll()));
+    }
+
+    public void findAll(RowCallback<T> callback) {
+        context.flushPendingWrites();
+        
+        getSqlMapClientTemplate().queryWithRowHandler(statement.findAll(), new RowCallbackRowHandler<T>(callback));
+    }
+    
+    /**
+     * findAllByIds statement 가 선언되어 있으면 batchSize 단위의 IN (...) 조건으로 조회하고,
+     * 없으면 id 마다 findOne 을 호출한다. 결과는 ids 의 순서를 따르며 없는 id 는 제외된다.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> findAll(Iterable<Serializable> ids) {
+        context.flushPendingWrites();
+        
+        Set<Serializable> targets = new LinkedHashSet<Serializable>();
+        for(Serializable id : ids) {
+            targets.add(id);
+        }
+        
+        List<T> results = new ArrayList<T>(targets.size());
+        if(targets.isEmpty())
+            return results;
+        
+        if(!statement.hasStatement(StatementIdType.findAllByIds)) {
+            for(Serializable id : targets) {
+                T entity = findOne(id);
+                if(entity != null)
+                    results.add(entity);
+            }
+            return results;
+        }
+        
+        List<Serializable> idList = new ArrayList<Serializable>(targets);
+        List<Map<String, Object>> chunks = new ArrayList<Map<String, Object>>();
+        for(int from = 0; from < idList.size(); from += batchSize) {
+            chunks.add(getIdsParameters(idList.subList(from, Math.min(from + batchSize, idList.size()))));
+        }
+        
+        Map<Object, T> entities = new HashMap<Object, T>();
+        for(T entity : (List<T>) context.snapshot(queryForChunks(statement.findAllByIds(), chunks))) {
+            entities.put(entityInformation.getId(entity), entity);
+        }
+        
+        for(Serializable id : idList) {
+            T entity = entities.get(id);
+            if(entity != null)
+                results.add(entity);
+        }
+        
+        return results;
+    }
+    
+    /**
+     * 각 parameter 로 statement 를 실행한 결과를 합친다.
+     * 트랜잭션 안에서는 같은 커넥션을 사용해야 하므로 parallelQueryExecutor 가 있어도 순차적으로 실행한다.
+     */
+    protected List<?> queryForChunks(final String statementId, List<? extends Object> parameters) {
+        List<Object> results = new ArrayList<Object>();
+        
+        AsyncTaskExecutor parallelQueryExecutor = context.getParallelQueryExecutor();
+        if(parallelQueryExecutor == null || parameters.size() < 2 
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            for(Object parameter : parameters) {
+                results.addAll(getSqlMapClientTemplate().queryForList(statementId, parameter));
+            }
+            return results;
+        }
+        
+        List<Future<List<?>>> futures = new ArrayList<Future<List<?>>>(parameters.size());
+        for(final Object parameter : parameters) {
+            futures.add(parallelQueryExecutor.submit(new Callable<List<?>>() {
+                public List<?> call() throws Exception {
+                    return getSqlMapClientTemplate().queryForList(statementId, parameter);
+                }
+            }));
+        }
+        
+        try {
+            for(Future<List<?>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(statementId + " 를 기다리는 중에 interrupt 되었습니다.", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(statementId + " 실행에 실패했습니다.", e.getCause());
+        } finally {
+            for(Future<List<?>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        
+        return results;
+    }
+    
+    public Publisher<T> findAllPublisher() {
+        Assert.state(context.getStreamingExecutor() != null, "streamingExecutor 가 설정되지 않았습니다.");
+        context.flushPendingWrites();
+        
+        return new RowHandlerPublisher<T>(getSqlMapClientTemplate(), statement.findAll(), null, 
+                context.getStreamingExecutor());
+    }
+    
+    public Future<T> findOneAsync(final Serializable id) {
+        return context.submit(new Callable<T>() {
+            public T call() throws Exception {
+                return findOne(id);
+            }
+        });
+    }
+    
+    public Future<List<T>> findAllAsync(final Iterable<Serializable> ids) {
+        return context.submit(new Callable<List<T>>() {
+            public List<T> call() throws Exception {
+                return findAll(ids);
+            }
+        });
+    }
+    
+    public Future<Long> countAsync() {
+        return context.submit(new Callable<Long>() {
+            public Long call() throws Exception {
+                return count();
+            }
+        });
+    }
+    
+    public CloseableIterator<T> iterateAll() {
+        Assert.state(context.getStreamingExecutor() != null, "streamingExecutor 가 설정되지 않았습니다.");
+        context.flushPendingWrites();
+        
+        return new RowHandlerIterator<T>(getSqlMapClientTemplate(), statement.findAll(), null)
+                .start(context.getStreamingExecutor());
     }
 
     @SuppressWarnings("unchecked")
     public List<T> findAll(final Sort sort) {
+        context.flushPendingWrites();
+        
+        return context.snapshot(getSqlMapClientTemplate().queryForList(statement.findAll_Sort(), getSortParameters(sort)));
+    }
+    
+    public void findAll(Sort sort, RowCallback<T> callback) {
+        context.flushPendingWrites();
+        
+        getSqlMapClientTemplate().queryWithRowHandler(statement.findAll_Sort(), getSortParameters(sort), 
+                new RowCallbackRowHandler<T>(callback));
+    }
+    
+    protected Map<String, ArrayList<Sort.Order>> getSortParameters(Sort sort) {
         ArrayList<Sort.Order> orders = new ArrayList<Sort.Order>();
         Iterator<Sort.Order> iterable = sort.iterator();
         while(iterable.hasNext()) {
@@ -119,17 +664,51 @@ public class DefaultSqlmapClientRepository<T, ID extends Serializable> implement
         Map<String, ArrayList<Sort.Order>> params = new HashMap<String, ArrayList<Order>>();
         params.put("orders", orders);
         
-        return getSqlMapClientTemplate().queryForList(statement.findAll_Sort(), params);
+        return params;
     }
 
     @SuppressWarnings("unchecked")
     public Page<T> findAll(Pageable pageable) {
-        List<T> results = getSqlMapClientTemplate().queryForList(statement.findAll_Pageable(), pageable);
-        return new PageImpl<T>(results, pageable, results.size());
+        context.flushPendingWrites();
+        
+        List<T> results = context.snapshot(getSqlMapClientTemplate().queryForList(statement.findAll_Pageable(), pageable));
+        
+        long total;
+        if(!results.isEmpty() && results.size() < pageable.getPageSize())
+            total = pageable.getOffset() + results.size();
+        else if(results.isEmpty() && pageable.getOffset() == 0)
+            total = 0;
+        else
+            total = count();
+        
+        return new PageImpl<T>(results, pageable, total);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public Slice<T> findAll(Keyset keyset) {
+        context.flushPendingWrites();
+        
+        List<T> rows = context.snapshot(getSqlMapClientTemplate().queryForList(statement.findAll_Keyset(), keyset));
+        return Slice.of(rows, keyset);
     }
     
     public Long count() {
-        return (Long) getSqlMapClientTemplate().queryForObject(statement.count());
+        context.flushPendingWrites();
+        
+        String statementId = statement.count();
+        CountCache countCache = context.getCountCache();
+        
+        if(countCache != null) {
+            Long count = countCache.get(statementId);
+            if(count != null)
+                return count;
+        }
+        
+        Long count = (Long) getSqlMapClientTemplate().queryForObject(statementId);
+        if(countCache != null && count != null && context.isCachePopulatable())
+            countCache.put(statementId, count);
+        
+        return count;
     }
 
 }
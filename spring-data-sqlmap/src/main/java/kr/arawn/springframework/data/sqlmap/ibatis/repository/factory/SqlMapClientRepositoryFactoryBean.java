@@ -1,9 +1,19 @@
 package kr.arawn.springframework.data.sqlmap.ibatis.repository.factory;
 
 import java.io.Serializable;
+import java.util.List;
 
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.DefaultSqlmapClientRepository;
 import kr.arawn.springframework.data.sqlmap.repository.SqlmapRepository;
+import kr.arawn.springframework.data.sqlmap.repository.support.CountCache;
+import kr.arawn.springframework.data.sqlmap.repository.support.QueryResultCache;
+import kr.arawn.springframework.data.sqlmap.repository.support.RepositoryOperationEvents;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementInterceptor;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementMetrics;
+import kr.arawn.springframework.data.sqlmap.repository.support.TimeToLiveCountCache;
 
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.repository.support.RepositoryFactorySupport;
 import org.springframework.data.repository.support.TransactionalRepositoryFactoryBeanSupport;
 import org.springframework.orm.ibatis.SqlMapClientTemplate;
@@ -14,11 +24,81 @@ public class SqlMapClientRepositoryFactoryBean<T extends SqlmapRepository<S, ID>
         extends TransactionalRepositoryFactoryBeanSupport<T, S, ID> {
     
     private SqlMapClientTemplate sqlmapExecutor;
+    private int batchSize = DefaultSqlmapClientRepository.DEFAULT_BATCH_SIZE;
+    private CountCache countCache;
+    private long countCacheTimeToLive;
+    private TaskExecutor streamingExecutor;
+    private AsyncTaskExecutor parallelQueryExecutor;
+    private AsyncTaskExecutor asyncExecutor;
+    private long queryCacheMaxWeight = QueryResultCache.DEFAULT_MAX_WEIGHT;
+    private boolean coalesceQueries = false;
+    private StatementMetrics statementMetrics;
+    private long slowStatementThreshold = -1;
+    private boolean explainSlowStatements = false;
+    private TaskExecutor explainExecutor;
+    private RepositoryOperationEvents operationEvents;
+    private List<StatementInterceptor> statementInterceptors;
     
     public void setSqlmapExecutor(SqlMapClientTemplate sqlmapExecutor) {
         this.sqlmapExecutor = sqlmapExecutor;
     }
     
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
+    
+    public void setCountCacheTimeToLive(long countCacheTimeToLive) {
+        this.countCacheTimeToLive = countCacheTimeToLive;
+    }
+    
+    public void setStreamingExecutor(TaskExecutor streamingExecutor) {
+        this.streamingExecutor = streamingExecutor;
+    }
+    
+    public void setParallelQueryExecutor(AsyncTaskExecutor parallelQueryExecutor) {
+        this.parallelQueryExecutor = parallelQueryExecutor;
+    }
+    
+    public void setAsyncExecutor(AsyncTaskExecutor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+    
+    public void setQueryCacheMaxWeight(long queryCacheMaxWeight) {
+        this.queryCacheMaxWeight = queryCacheMaxWeight;
+    }
+    
+    public void setCoalesceQueries(boolean coalesceQueries) {
+        this.coalesceQueries = coalesceQueries;
+    }
+    
+    public void setStatementMetrics(StatementMetrics statementMetrics) {
+        this.statementMetrics = statementMetrics;
+    }
+    
+    public void setSlowStatementThreshold(long slowStatementThreshold) {
+        this.slowStatementThreshold = slowStatementThreshold;
+    }
+    
+    public void setExplainSlowStatements(boolean explainSlowStatements) {
+        this.explainSlowStatements = explainSlowStatements;
+    }
+    
+    public void setExplainExecutor(TaskExecutor explainExecutor) {
+        this.explainExecutor = explainExecutor;
+    }
+    
+    public void setOperationEvents(RepositoryOperationEvents operationEvents) {
+        this.operationEvents = operationEvents;
+    }
+    
+    public void setStatementInterceptors(List<StatementInterceptor> statementInterceptors) {
+        this.statementInterceptors = statementInterceptors;
+    }
+    
     @Override
     public void afterPropertiesSet() {
         Assert.notNull(sqlmapExecutor, "sqlMapClientTemplate must not be null!");
@@ -27,7 +107,38 @@ public class SqlMapClientRepositoryFactoryBean<T extends SqlmapRepository<S, ID>
     
     @Override
     protected RepositoryFactorySupport doCreateRepositoryFactory() {
-        return new SqlmapClientRepositoryFactory(sqlmapExecutor);
+        SqlmapClientRepositoryFactory factory = new SqlmapClientRepositoryFactory(sqlmapExecutor);
+        factory.setBatchSize(batchSize);
+        
+        if(countCache != null)
+            factory.setCountCache(countCache);
+        else if(countCacheTimeToLive > 0)
+            factory.setCountCache(new TimeToLiveCountCache(countCacheTimeToLive));
+        
+        if(streamingExecutor != null)
+            factory.setStreamingExecutor(streamingExecutor);
+        factory.setParallelQueryExecutor(parallelQueryExecutor);
+        if(asyncExecutor != null)
+            factory.setAsyncExecutor(asyncExecutor);
+        factory.setQueryCacheMaxWeight(queryCacheMaxWeight);
+        factory.setCoalesceQueries(coalesceQueries);
+        if(statementInterceptors != null)
+            factory.setStatementInterceptors(statementInterceptors);
+        
+        if(statementMetrics != null)
+            factory.setStatementMetrics(statementMetrics);
+        
+        if(slowStatementThreshold >= 0) {
+            TaskExecutor executor = null;
+            if(explainSlowStatements)
+                executor = explainExecutor != null ? explainExecutor : SqlmapClientRepositoryFactory.createExplainExecutor(SqlmapClientRepositoryFactory.DEFAULT_EXPLAIN_POOL_SIZE);
+            factory.setSlowStatementThreshold(slowStatementThreshold, executor);
+        }
+        
+        if(operationEvents != null)
+            factory.setOperationEvents(operationEvents);
+        
+        return factory;
     }
 
 }
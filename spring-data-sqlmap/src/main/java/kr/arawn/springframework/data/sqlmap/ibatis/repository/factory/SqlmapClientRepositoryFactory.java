@@ -2,48 +2,277 @@ package kr.arawn.springframework.data.sqlmap.ibatis.repository.factory;
 
 import java.beans.Introspector;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
 
 import kr.arawn.springframework.data.sqlmap.ibatis.repository.DefaultSqlmapClientRepository;
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.InterceptingSqlMapClientTemplate;
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.PooledIdGenerator;
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.SlowStatementLogger;
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.SqlMapClientUtils;
+import kr.arawn.springframework.data.sqlmap.repository.DirtyTracking;
+import kr.arawn.springframework.data.sqlmap.repository.EntityCaching;
+import kr.arawn.springframework.data.sqlmap.repository.IdAllocation;
 import kr.arawn.springframework.data.sqlmap.repository.Namespace;
+import kr.arawn.springframework.data.sqlmap.repository.WriteBehind;
 import kr.arawn.springframework.data.sqlmap.repository.factory.SqlmapEntityInformation;
 import kr.arawn.springframework.data.sqlmap.repository.factory.SqlmapRepositoryFactory;
 import kr.arawn.springframework.data.sqlmap.repository.query.SqlmapQueryLookupStrategy;
+import kr.arawn.springframework.data.sqlmap.repository.statement.QueryCaching;
 import kr.arawn.springframework.data.sqlmap.repository.statement.Statement;
+import kr.arawn.springframework.data.sqlmap.repository.support.CountCache;
+import kr.arawn.springframework.data.sqlmap.repository.support.CurrentRepositoryMethod;
+import kr.arawn.springframework.data.sqlmap.repository.support.EntityCache;
+import kr.arawn.springframework.data.sqlmap.repository.support.EntitySnapshots;
+import kr.arawn.springframework.data.sqlmap.repository.support.IdGenerator;
+import kr.arawn.springframework.data.sqlmap.repository.support.InFlightQueryCoalescer;
+import kr.arawn.springframework.data.sqlmap.repository.support.QueryResultCache;
+import kr.arawn.springframework.data.sqlmap.repository.support.RepositoryOperationEvents;
+import kr.arawn.springframework.data.sqlmap.repository.support.SqlmapRepositoryContext;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementInterceptor;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementMetrics;
 import kr.arawn.springframework.data.sqlmap.repository.statement.StatementInformation;
 import kr.arawn.springframework.data.sqlmap.repository.statement.StatementInformation.StatementIdType;
 
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.data.repository.query.QueryLookupStrategy;
 import org.springframework.data.repository.query.QueryLookupStrategy.Key;
 import org.springframework.data.repository.support.RepositoryMetadata;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
 import org.springframework.orm.ibatis.SqlMapClientTemplate;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.CustomizableThreadCreator;
 
 public class SqlmapClientRepositoryFactory extends SqlmapRepositoryFactory {
 
+    /**
+     * streamingExecutor 를 지정하지 않았을 때 동시에 열어둘 수 있는 stream(커넥션) 수
+     */
+    public static final int DEFAULT_STREAMING_POOL_SIZE = 10;
+    
+    /**
+     * asyncExecutor 를 지정하지 않았을 때 동시에 실행할 수 있는 비동기 조회 수
+     */
+    public static final int DEFAULT_ASYNC_POOL_SIZE = 20;
+    
+    /**
+     * explainExecutor 를 지정하지 않았을 때 동시에 조회할 수 있는 실행 계획 수
+     */
+    public static final int DEFAULT_EXPLAIN_POOL_SIZE = 2;
+
     private SqlMapClientTemplate sqlMapClientTemplate;
     private StatementInformation statement;;
+    private SqlmapRepositoryContext context;
+    
+    private int batchSize = DefaultSqlmapClientRepository.DEFAULT_BATCH_SIZE;
+    private CountCache countCache;
+    private TaskExecutor streamingExecutor = createStreamingExecutor(DEFAULT_STREAMING_POOL_SIZE);
+    private AsyncTaskExecutor parallelQueryExecutor;
+    private AsyncTaskExecutor asyncExecutor = createBoundedExecutor("sqlmap-async-", DEFAULT_ASYNC_POOL_SIZE);
+    private long queryCacheMaxWeight = QueryResultCache.DEFAULT_MAX_WEIGHT;
+    private boolean coalesceQueries = false;
+    private final List<StatementInterceptor> statementInterceptors = new ArrayList<StatementInterceptor>();
+    private StatementMetrics statementMetrics;
+    private SlowStatementLogger slowStatementLogger;
+    private RepositoryOperationEvents operationEvents;
+    private boolean repositoryMethodExposed = false;
 
     public SqlmapClientRepositoryFactory(SqlMapClientTemplate sqlMapClientTemplate) {
         this.sqlMapClientTemplate = sqlMapClientTemplate;
     }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
+    
+    public void setStreamingExecutor(TaskExecutor streamingExecutor) {
+        this.streamingExecutor = streamingExecutor;
+    }
+    
+    /**
+     * stream 하나가 끝날 때까지 쓰레드와 커넥션을 하나씩 잡고 있으므로 쓰레드 수를 maxPoolSize 로 제한한다.
+     */
+    public static TaskExecutor createStreamingExecutor(int maxPoolSize) {
+        return createBoundedExecutor("sqlmap-streaming-", maxPoolSize);
+    }
+    
+    /**
+     * 실행 계획은 데이터베이스가 느려졌을 때 조회되므로 쓰레드(커넥션) 수를 maxPoolSize 로 제한한다.
+     * 거절된 실행 계획은 조회하지 않고 slow statement 만 로그에 남긴다.
+     */
+    public static TaskExecutor createExplainExecutor(int maxPoolSize) {
+        return createBoundedExecutor("sqlmap-explain-", maxPoolSize);
+    }
+    
+    /**
+     * 쓰레드 수가 maxPoolSize 로 제한된 executor, 쓰레드가 모두 사용 중이면 기다리지 않고 TaskRejectedException 을 던진다.
+     * 쉬는 쓰레드는 60초 뒤에 정리되고 daemon 이므로 따로 종료하지 않아도 된다.
+     */
+    public static AsyncTaskExecutor createBoundedExecutor(String threadNamePrefix, int maxPoolSize) {
+        final CustomizableThreadCreator threadCreator = new CustomizableThreadCreator(threadNamePrefix);
+        threadCreator.setDaemon(true);
+        
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(0, maxPoolSize, 60, TimeUnit.SECONDS, 
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                    public Thread newThread(Runnable runnable) {
+                        return threadCreator.createThread(runnable);
+                    }
+                }, new ThreadPoolExecutor.AbortPolicy());
+        return new TaskExecutorAdapter(executor);
+    }
+    
+    public void setParallelQueryExecutor(AsyncTaskExecutor parallelQueryExecutor) {
+        this.parallelQueryExecutor = parallelQueryExecutor;
+    }
+    
+    public void setAsyncExecutor(AsyncTaskExecutor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+    
+    public void setQueryCacheMaxWeight(long queryCacheMaxWeight) {
+        this.queryCacheMaxWeight = queryCacheMaxWeight;
+    }
+    
+    public void setCoalesceQueries(boolean coalesceQueries) {
+        this.coalesceQueries = coalesceQueries;
+    }
+    
+    /**
+     * 이 factory 가 만드는 Repository 가 실행하는 statement 를 감쌀 interceptor
+     */
+    public void setStatementInterceptors(List<? extends StatementInterceptor> statementInterceptors) {
+        this.statementInterceptors.clear();
+        if(statementInterceptors != null)
+            this.statementInterceptors.addAll(statementInterceptors);
+        applyStatementInterceptors();
+    }
+    
+    /**
+     * 설정하면 이 factory 가 만드는 Repository 의 statement 실행을 statementMetrics 에 기록한다.
+     */
+    public void setStatementMetrics(StatementMetrics statementMetrics) {
+        this.statementMetrics = statementMetrics;
+        applyStatementInterceptors();
+    }
+    
+    public StatementMetrics getStatementMetrics() {
+        return statementMetrics;
+    }
+    
+    /**
+     * threshold(milli 초)보다 오래 걸린 statement 를 로그에 남긴다.
+     * explainExecutor 가 있으면 select statement 의 실행 계획을 그 executor 에서 조회해서 함께 남긴다.
+     */
+    public void setSlowStatementThreshold(long threshold, TaskExecutor explainExecutor) {
+        SlowStatementLogger slowStatementLogger = new SlowStatementLogger(sqlMapClientTemplate.getSqlMapClient(), threshold);
+        if(explainExecutor != null) {
+            DataSource dataSource = sqlMapClientTemplate.getDataSource();
+            if (dataSource instanceof TransactionAwareDataSourceProxy)
+                dataSource = ((TransactionAwareDataSourceProxy) dataSource).getTargetDataSource();
+            slowStatementLogger.setExplain(dataSource, explainExecutor);
+        }
+        
+        this.slowStatementLogger = slowStatementLogger;
+        applyStatementInterceptors();
+        exposeRepositoryMethod();
+    }
+    
+    /**
+     * 설정하면 이 factory 가 만드는 Repository 의 statement 실행을 operationEvents 의 listener 에게 넘긴다.
+     */
+    public void setOperationEvents(RepositoryOperationEvents operationEvents) {
+        this.operationEvents = operationEvents;
+        applyStatementInterceptors();
+        if(operationEvents != null)
+            exposeRepositoryMethod();
+    }
+    
+    /**
+     * 사용자 interceptor 다음에 statementMetrics, slowStatementLogger, operationEvents 순으로 실행되도록
+     * template 의 interceptor 를 다시 구성한다. interceptor 가 하나도 없으면 template 을 감싸지 않는다.
+     */
+    protected void applyStatementInterceptors() {
+        List<StatementInterceptor> interceptors = new ArrayList<StatementInterceptor>(statementInterceptors);
+        if(statementMetrics != null)
+            interceptors.add(statementMetrics);
+        if(slowStatementLogger != null)
+            interceptors.add(slowStatementLogger);
+        if(operationEvents != null)
+            interceptors.add(operationEvents);
+        
+        if(interceptors.isEmpty() && !(sqlMapClientTemplate instanceof InterceptingSqlMapClientTemplate))
+            return;
+        
+        if(!(sqlMapClientTemplate instanceof InterceptingSqlMapClientTemplate))
+            sqlMapClientTemplate = new InterceptingSqlMapClientTemplate(sqlMapClientTemplate);
+        ((InterceptingSqlMapClientTemplate) sqlMapClientTemplate).setInterceptors(interceptors);
+    }
+    
+    /**
+     * statement 를 실행한 Repository 메소드를 {@link CurrentRepositoryMethod} 로 알 수 있게 한다.
+     */
+    protected void exposeRepositoryMethod() {
+        if(repositoryMethodExposed)
+            return;
+        
+        addRepositoryProxyPostProcessor(CurrentRepositoryMethod.POST_PROCESSOR);
+        repositoryMethodExposed = true;
+    }
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
     protected Object getTargetRepository(RepositoryMetadata metadata) {
         generateStatementInformation(metadata.getRepositoryInterface(), metadata.getDomainClass());
+        generateRepositoryContext(metadata.getRepositoryInterface());
         
-        return new DefaultSqlmapClientRepository(
+        SqlmapEntityInformation entityInformation = (SqlmapEntityInformation) getEntityInformation(metadata.getDomainClass());
+        if(statement.hasStatement(StatementIdType.nextId))
+            entityInformation.setIdGenerator(createIdGenerator(metadata.getRepositoryInterface()));
+        
+        DirtyTracking dirtyTracking = AnnotationUtils.findAnnotation(metadata.getRepositoryInterface(), DirtyTracking.class);
+        if(dirtyTracking != null)
+            this.context.setEntitySnapshots(new EntitySnapshots(entityInformation, dirtyTracking.maxSize()));
+        
+        DefaultSqlmapClientRepository repository = new DefaultSqlmapClientRepository(
                 this.sqlMapClientTemplate,
-                (SqlmapEntityInformation) getEntityInformation(metadata.getDomainClass()),
+                entityInformation,
                 this.statement);
+        repository.setBatchSize(batchSize);
+        repository.setContext(this.context);
+        if(AnnotationUtils.findAnnotation(metadata.getRepositoryInterface(), WriteBehind.class) != null)
+            repository.enableWriteBehind();
+        
+        return repository;
     }
     
     @Override
     protected QueryLookupStrategy getQueryLookupStrategy(Key key) {
-        return SqlmapQueryLookupStrategy.create(key, this.sqlMapClientTemplate, this.statement);
+        return SqlmapQueryLookupStrategy.create(key, this.sqlMapClientTemplate, this.statement, this.context);
+    }
+    
+    /**
+     * nextId statement 로 sequence 값을 가져오는 IdGenerator, 할당 크기는 {@link IdAllocation} 을 따른다.
+     */
+    protected IdGenerator createIdGenerator(Class<?> repositoryInterface) {
+        IdAllocation idAllocation = AnnotationUtils.findAnnotation(repositoryInterface, IdAllocation.class);
+        
+        return new PooledIdGenerator(this.sqlMapClientTemplate, this.statement.nextId(), 
+                idAllocation != null ? idAllocation.allocationSize() : 1);
     }
     
     protected void generateStatementInformation(Class<?> repositoryInterface, Class<?> domainClass) {
@@ -57,10 +286,14 @@ public class SqlmapClientRepositoryFactory extends SqlmapRepositoryFactory {
             rootNameSpace = Introspector.decapitalize(ClassUtils.getShortName(domainClass));
 
         for(StatementIdType id : StatementIdType.values()) {
+            String statementId;
             if(rootNameSpace != null && rootNameSpace.length() > 0)
-                map.put(id.name(), rootNameSpace + "." + id.name());
+                statementId = rootNameSpace + "." + id.name();
             else
-                map.put(id.name(), id.name());
+                statementId = id.name();
+            
+            if(!id.isOptional() || isMappedStatement(statementId))
+                map.put(id.name(), statementId);
         }
 
         for (Method method : repositoryInterface.getDeclaredMethods()) {
@@ -76,5 +309,36 @@ public class SqlmapClientRepositoryFactory extends SqlmapRepositoryFactory {
         
         this.statement = new StatementInformation(map);
     }
+    
+    protected void generateRepositoryContext(Class<?> repositoryInterface) {
+        SqlmapRepositoryContext context = new SqlmapRepositoryContext();
+        context.setCountCache(countCache);
+        context.setStreamingExecutor(streamingExecutor);
+        context.setParallelQueryExecutor(parallelQueryExecutor);
+        context.setAsyncExecutor(asyncExecutor);
+        if (coalesceQueries)
+            context.setInFlightQueryCoalescer(new InFlightQueryCoalescer());
+        
+        EntityCaching entityCaching = AnnotationUtils.findAnnotation(repositoryInterface, EntityCaching.class);
+        if (entityCaching != null) {
+            EntityCache entityCache = new EntityCache(entityCaching.maxSize(), entityCaching.timeToLive());
+            context.setEntityCache(entityCache);
+            if (statementMetrics != null)
+                statementMetrics.registerEntityCache(repositoryInterface.getName(), entityCache);
+        }
+        
+        for (Method method : repositoryInterface.getMethods()) {
+            if (AnnotationUtils.findAnnotation(method, QueryCaching.class) != null) {
+                context.setQueryResultCache(new QueryResultCache(queryCacheMaxWeight));
+                break;
+            }
+        }
+        
+        this.context = context;
+    }
+    
+    protected boolean isMappedStatement(String statementId) {
+        return SqlMapClientUtils.isMappedStatement(sqlMapClientTemplate.getSqlMapClient(), statementId);
+    }
 
 }
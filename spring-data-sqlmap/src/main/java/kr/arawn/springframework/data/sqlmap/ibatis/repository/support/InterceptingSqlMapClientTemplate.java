@@ -0,0 +1,397 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementExecution;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementInterceptor;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementOperation;
+
+import org.springframework.core.OrderComparator;
+import org.springframework.orm.ibatis.SqlMapClientCallback;
+import org.springframework.orm.ibatis.SqlMapClientTemplate;
+import org.springframework.util.Assert;
+
+import com.ibatis.sqlmap.client.event.RowHandler;
+
+/**
+ * statement id 로 실행되는 호출을 {@link StatementInterceptor} 들에게 넘기고 실제 실행은 target 에 위임하는 SqlMapClientTemplate
+ *
+ * interceptor 가 없으면 {@link StatementExecution} 을 만들지 않고 바로 target 을 호출한다.
+ * execute(SqlMapClientCallback) 는 statement 별로 구분할 수 없으므로 interceptor 를 거치지 않는다.
+ * Repository 의 JDBC batch 는 {@link #executeBatch} 로 chunk 단위로 넘겨진다.
+ */
+public class InterceptingSqlMapClientTemplate extends SqlMapClientTemplate {
+    
+    private static final StatementInterceptor[] NO_INTERCEPTORS = new StatementInterceptor[0];
+    
+    private final SqlMapClientTemplate target;
+    
+    private volatile StatementInterceptor[] interceptors = NO_INTERCEPTORS;
+    
+    public InterceptingSqlMapClientTemplate(SqlMapClientTemplate target) {
+        Assert.notNull(target, "target must not be null");
+        
+        this.target = target;
+        
+        setSqlMapClient(target.getSqlMapClient());
+        setDataSource(target.getDataSource());
+    }
+    
+    public SqlMapClientTemplate getTarget() {
+        return target;
+    }
+    
+    /**
+     * Ordered 를 구현한 interceptor 는 그 순서로, 나머지는 등록된 순서로 실행된다.
+     */
+    public void setInterceptors(List<? extends StatementInterceptor> interceptors) {
+        if(interceptors == null || interceptors.isEmpty()) {
+            this.interceptors = NO_INTERCEPTORS;
+            return;
+        }
+        
+        List<StatementInterceptor> sorted = new ArrayList<StatementInterceptor>(interceptors);
+        Collections.sort(sorted, new OrderComparator());
+        this.interceptors = sorted.toArray(new StatementInterceptor[sorted.size()]);
+    }
+    
+    public StatementInterceptor[] getInterceptors() {
+        return interceptors.clone();
+    }
+    
+    @Override
+    public <T> T execute(SqlMapClientCallback<T> action) {
+        return target.execute(action);
+    }
+    
+    /**
+     * JDBC batch chunk 하나를 statement 실행 하나로 interceptor 에게 넘긴다.
+     * parameter 는 chunk 의 parameter 목록이고 row 수는 action 이 반환한 영향받은 row 수다.
+     * interceptor 가 바꾼 parameter 는 action 에 반영되지 않는다.
+     */
+    public Integer executeBatch(String statementName, StatementOperation operation, List<?> parameters, 
+            final SqlMapClientCallback<Integer> action) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.execute(action);
+        
+        return (Integer) new StatementExecution(interceptors, operation, statementName, parameters) {
+            @Override
+            protected Object invoke(Object parameter) {
+                Integer rows = target.execute(action);
+                setRows(rows == null ? 0 : rows);
+                return rows;
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public Object queryForObject(String statementName) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.queryForObject(statementName);
+        
+        return new StatementExecution(interceptors, StatementOperation.SELECT, statementName, null) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.queryForObject(getStatementId());
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public Object queryForObject(String statementName, Object parameterObject) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.queryForObject(statementName, parameterObject);
+        
+        return new StatementExecution(interceptors, StatementOperation.SELECT, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.queryForObject(getStatementId(), parameter);
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public Object queryForObject(String statementName, Object parameterObject, final Object resultObject) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.queryForObject(statementName, parameterObject, resultObject);
+        
+        return new StatementExecution(interceptors, StatementOperation.SELECT, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.queryForObject(getStatementId(), parameter, resultObject);
+            }
+        }.proceed();
+    }
+    
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List queryForList(String statementName) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.queryForList(statementName);
+        
+        return (List) new StatementExecution(interceptors, StatementOperation.SELECT, statementName, null) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.queryForList(getStatementId());
+            }
+        }.proceed();
+    }
+    
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List queryForList(String statementName, Object parameterObject) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.queryForList(statementName, parameterObject);
+        
+        return (List) new StatementExecution(interceptors, StatementOperation.SELECT, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.queryForList(getStatementId(), parameter);
+            }
+        }.proceed();
+    }
+    
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List queryForList(String statementName, final int skipResults, final int maxResults) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.queryForList(statementName, skipResults, maxResults);
+        
+        return (List) new StatementExecution(interceptors, StatementOperation.SELECT, statementName, null) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.queryForList(getStatementId(), skipResults, maxResults);
+            }
+        }.proceed();
+    }
+    
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List queryForList(String statementName, Object parameterObject, final int skipResults, final int maxResults) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.queryForList(statementName, parameterObject, skipResults, maxResults);
+        
+        return (List) new StatementExecution(interceptors, StatementOperation.SELECT, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.queryForList(getStatementId(), parameter, skipResults, maxResults);
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public void queryWithRowHandler(String statementName, final RowHandler rowHandler) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0) {
+            target.queryWithRowHandler(statementName, rowHandler);
+            return;
+        }
+        
+        new StatementExecution(interceptors, StatementOperation.SELECT, statementName, null) {
+            @Override
+            protected Object invoke(Object parameter) {
+                CountingRowHandler counter = new CountingRowHandler(rowHandler);
+                target.queryWithRowHandler(getStatementId(), counter);
+                setRows(counter.rows);
+                return null;
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public void queryWithRowHandler(String statementName, Object parameterObject, final RowHandler rowHandler) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0) {
+            target.queryWithRowHandler(statementName, parameterObject, rowHandler);
+            return;
+        }
+        
+        new StatementExecution(interceptors, StatementOperation.SELECT, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                CountingRowHandler counter = new CountingRowHandler(rowHandler);
+                target.queryWithRowHandler(getStatementId(), parameter, counter);
+                setRows(counter.rows);
+                return null;
+            }
+        }.proceed();
+    }
+    
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Map queryForMap(String statementName, Object parameterObject, final String keyProperty) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.queryForMap(statementName, parameterObject, keyProperty);
+        
+        return (Map) new StatementExecution(interceptors, StatementOperation.SELECT, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.queryForMap(getStatementId(), parameter, keyProperty);
+            }
+        }.proceed();
+    }
+    
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Map queryForMap(String statementName, Object parameterObject, final String keyProperty, final String valueProperty) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.queryForMap(statementName, parameterObject, keyProperty, valueProperty);
+        
+        return (Map) new StatementExecution(interceptors, StatementOperation.SELECT, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.queryForMap(getStatementId(), parameter, keyProperty, valueProperty);
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public Object insert(String statementName) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.insert(statementName);
+        
+        return new StatementExecution(interceptors, StatementOperation.INSERT, statementName, null) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.insert(getStatementId());
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public Object insert(String statementName, Object parameterObject) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.insert(statementName, parameterObject);
+        
+        return new StatementExecution(interceptors, StatementOperation.INSERT, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.insert(getStatementId(), parameter);
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public int update(String statementName) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.update(statementName);
+        
+        return (Integer) new StatementExecution(interceptors, StatementOperation.UPDATE, statementName, null) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.update(getStatementId());
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public int update(String statementName, Object parameterObject) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.update(statementName, parameterObject);
+        
+        return (Integer) new StatementExecution(interceptors, StatementOperation.UPDATE, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.update(getStatementId(), parameter);
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public void update(String statementName, Object parameterObject, final int requiredRowsAffected) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0) {
+            target.update(statementName, parameterObject, requiredRowsAffected);
+            return;
+        }
+        
+        new StatementExecution(interceptors, StatementOperation.UPDATE, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                target.update(getStatementId(), parameter, requiredRowsAffected);
+                setRows(requiredRowsAffected);
+                return null;
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public int delete(String statementName) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.delete(statementName);
+        
+        return (Integer) new StatementExecution(interceptors, StatementOperation.DELETE, statementName, null) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.delete(getStatementId());
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public int delete(String statementName, Object parameterObject) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0)
+            return target.delete(statementName, parameterObject);
+        
+        return (Integer) new StatementExecution(interceptors, StatementOperation.DELETE, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return target.delete(getStatementId(), parameter);
+            }
+        }.proceed();
+    }
+    
+    @Override
+    public void delete(String statementName, Object parameterObject, final int requiredRowsAffected) {
+        StatementInterceptor[] interceptors = this.interceptors;
+        if(interceptors.length == 0) {
+            target.delete(statementName, parameterObject, requiredRowsAffected);
+            return;
+        }
+        
+        new StatementExecution(interceptors, StatementOperation.DELETE, statementName, parameterObject) {
+            @Override
+            protected Object invoke(Object parameter) {
+                target.delete(getStatementId(), parameter, requiredRowsAffected);
+                setRows(requiredRowsAffected);
+                return null;
+            }
+        }.proceed();
+    }
+    
+    private static class CountingRowHandler implements RowHandler {
+        
+        private final RowHandler rowHandler;
+        private int rows = 0;
+        
+        public CountingRowHandler(RowHandler rowHandler) {
+            this.rowHandler = rowHandler;
+        }
+        
+        public void handleRow(Object valueObject) {
+            rowHandler.handleRow(valueObject);
+            rows++;
+        }
+        
+    }
+
+}
@@ -0,0 +1,66 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import kr.arawn.springframework.data.sqlmap.repository.support.IdGenerator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ibatis.SqlMapClientTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * statement 로 가져온 sequence 값 v 로 v ~ v + allocationSize - 1 의 id 를 메모리에서 할당한다. (pooled-lo)
+ *
+ * sequence 의 증가폭이 allocationSize 와 같아야 여러 서버가 같은 sequence 를 사용해도 id 가 겹치지 않는다.
+ * 증가폭이 더 작은 것이 발견되면 IllegalStateException 을 던진다.
+ */
+public class PooledIdGenerator implements IdGenerator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PooledIdGenerator.class);
+    
+    private final SqlMapClientTemplate template;
+    private final String statementId;
+    private final int allocationSize;
+    
+    private long next = 0;
+    private long limit = 0;
+    private Long lastValue;
+    
+    public PooledIdGenerator(SqlMapClientTemplate template, String statementId, int allocationSize) {
+        Assert.notNull(template);
+        Assert.notNull(statementId);
+        Assert.isTrue(allocationSize > 0, "allocationSize must be greater than 0");
+        
+        this.template = template;
+        this.statementId = statementId;
+        this.allocationSize = allocationSize;
+    }
+    
+    public synchronized long nextId() {
+        if(next >= limit)
+            allocate();
+        
+        return next++;
+    }
+    
+    private void allocate() {
+        Number value = (Number) template.queryForObject(statementId);
+        if(value == null)
+            throw new IllegalStateException(statementId + " 가 sequence 값을 반환하지 않았습니다.");
+        
+        long sequenceValue = value.longValue();
+        if(lastValue != null && sequenceValue < lastValue + allocationSize)
+            throw new IllegalStateException(String.format("%s 의 증가폭이 allocationSize(%d) 보다 작습니다. [%d -> %d]",
+                    statementId, allocationSize, lastValue, sequenceValue));
+        
+        lastValue = sequenceValue;
+        next = sequenceValue;
+        limit = sequenceValue + allocationSize;
+        
+        logger.debug("{} allocated id [{} ~ {}]", new Object[] { statementId, next, limit - 1 });
+    }
+    
+    public int getAllocationSize() {
+        return allocationSize;
+    }
+
+}
@@ -0,0 +1,26 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import kr.arawn.springframework.data.sqlmap.repository.RowCallback;
+
+import org.springframework.util.Assert;
+
+import com.ibatis.sqlmap.client.event.RowHandler;
+
+/**
+ * RowCallback 을 iBatis RowHandler 로 사용하기 위한 adapter
+ */
+public class RowCallbackRowHandler<T> implements RowHandler {
+    
+    private final RowCallback<T> callback;
+    
+    public RowCallbackRowHandler(RowCallback<T> callback) {
+        Assert.notNull(callback, "callback must not be null");
+        this.callback = callback;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void handleRow(Object valueObject) {
+        callback.processRow((T) valueObject);
+    }
+
+}
@@ -0,0 +1,172 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import kr.arawn.springframework.data.sqlmap.repository.CloseableIterator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.orm.ibatis.SqlMapClientTemplate;
+import org.springframework.util.Assert;
+
+import com.ibatis.sqlmap.client.event.RowHandler;
+
+/**
+ * SqlMapClientTemplate.queryWithRowHandler 를 별도의 쓰레드에서 실행하고,
+ * 크기가 제한된 버퍼를 통해 한 건씩 넘겨받는 Iterator
+ * 
+ * 소비하는 쪽이 느리면 버퍼가 가득 차서 row 를 읽는 쪽도 같이 멈추므로 결과 건수와 상관없이
+ * 버퍼 크기만큼의 메모리만 사용한다. 조회는 호출한 쪽의 트랜잭션 밖에서 별도의 커넥션으로 실행된다.
+ * 
+ * 버퍼가 가득 찬 채로 idleTimeout 동안 한 건도 가져가지 않으면 close() 하지 않고 버려진 것으로 보고
+ * 조회를 중단해 쓰레드와 커넥션을 반환한다.
+ */
+public class RowHandlerIterator<T> implements CloseableIterator<T> {
+    
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60000;
+    
+    private static final Logger logger = LoggerFactory.getLogger(RowHandlerIterator.class);
+    
+    private static final Object END = new Object();
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    
+    private final SqlMapClientTemplate template;
+    private final String statementId;
+    private final Object parameter;
+    private final BlockingQueue<Object> buffer;
+    
+    private volatile boolean closed = false;
+    private volatile RuntimeException failure;
+    private volatile boolean abandoned = false;
+    
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private volatile long lastConsumedAt;
+    
+    private Object next;
+    private boolean finished = false;
+    
+    public RowHandlerIterator(SqlMapClientTemplate template, String statementId, Object parameter) {
+        this(template, statementId, parameter, DEFAULT_BUFFER_SIZE);
+    }
+    
+    public RowHandlerIterator(SqlMapClientTemplate template, String statementId, Object parameter, int bufferSize) {
+        Assert.notNull(template);
+        Assert.notNull(statementId);
+        Assert.isTrue(bufferSize > 0, "bufferSize must be greater than 0");
+        
+        this.template = template;
+        this.statementId = statementId;
+        this.parameter = parameter;
+        this.buffer = new ArrayBlockingQueue<Object>(bufferSize);
+    }
+    
+    public void setIdleTimeout(long idleTimeout) {
+        Assert.isTrue(idleTimeout > 0, "idleTimeout must be greater than 0");
+        this.idleTimeout = idleTimeout;
+    }
+    
+    public RowHandlerIterator<T> start(TaskExecutor executor) {
+        Assert.notNull(executor, "executor must not be null");
+        
+        lastConsumedAt = System.currentTimeMillis();
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    template.queryWithRowHandler(statementId, parameter, new RowHandler() {
+                        public void handleRow(Object row) {
+                            if(!offer(row))
+                                throw new IterationClosedException();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // close() 로 중단된 경우에는 iBatis 가 감싼 IterationClosedException 이 넘어온다.
+                    if(!closed)
+                        failure = e;
+                } finally {
+                    offer(END);
+                }
+            }
+        });
+        
+        return this;
+    }
+    
+    private boolean offer(Object element) {
+        try {
+            while(!closed) {
+                if(buffer.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+                    return true;
+                
+                if(System.currentTimeMillis() - lastConsumedAt > idleTimeout) {
+                    logger.warn("{} 조회 결과를 {}ms 동안 가져가지 않아 조회를 중단합니다. 다 사용한 Iterator 는 close() 해야 합니다.", 
+                            statementId, idleTimeout);
+                    abandoned = true;
+                    close();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    public boolean hasNext() {
+        if(next != null)
+            return true;
+        if(abandoned)
+            throw new IllegalStateException(statementId + " : 조회 결과를 " + idleTimeout + "ms 동안 가져가지 않아 조회가 중단되었습니다.");
+        if(finished || closed)
+            return false;
+        
+        Object element;
+        try {
+            element = buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("조회 결과를 기다리는 중에 interrupt 되었습니다.", e);
+        }
+        lastConsumedAt = System.currentTimeMillis();
+        
+        if(element == END) {
+            finished = true;
+            if(failure != null)
+                throw failure;
+            return false;
+        }
+        
+        next = element;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if(!hasNext())
+            throw new NoSuchElementException();
+        
+        T row = (T) next;
+        next = null;
+        return row;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+        closed = true;
+        buffer.clear();
+    }
+    
+    private static class IterationClosedException extends RuntimeException {
+        
+        private static final long serialVersionUID = -2734216432155349021L;
+        
+    }
+
+}
@@ -0,0 +1,164 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.orm.ibatis.SqlMapClientTemplate;
+import org.springframework.util.Assert;
+
+import com.ibatis.sqlmap.client.event.RowHandler;
+
+/**
+ * SqlMapClientTemplate.queryWithRowHandler 의 결과를 reactive-streams 의 Publisher 로 넘긴다.
+ *
+ * 구독할 때마다 조회를 새로 실행하며, 조회는 첫 request(n) 이 들어왔을 때 executor 에서 시작된다.
+ * 요청(demand)이 남아 있지 않으면 row 를 읽는 쓰레드가 멈추므로 느린 구독자는 조회 속도를 늦출 뿐
+ * 결과를 메모리에 쌓지 않는다. 조회는 구독한 쪽의 트랜잭션 밖에서 별도의 커넥션으로 실행된다.
+ */
+public class RowHandlerPublisher<T> implements Publisher<T> {
+
+    private final SqlMapClientTemplate template;
+    private final String statementId;
+    private final Object parameter;
+    private final TaskExecutor executor;
+
+    public RowHandlerPublisher(SqlMapClientTemplate template, String statementId, Object parameter,
+            TaskExecutor executor) {
+        Assert.notNull(template);
+        Assert.notNull(statementId);
+        Assert.notNull(executor, "executor must not be null");
+
+        this.template = template;
+        this.statementId = statementId;
+        this.parameter = parameter;
+        this.executor = executor;
+    }
+
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if(subscriber == null)
+            throw new NullPointerException("subscriber must not be null");
+
+        subscriber.onSubscribe(new RowSubscription(subscriber));
+    }
+
+    private class RowSubscription implements Subscription, RowHandler, Runnable {
+
+        private final Subscriber<? super T> subscriber;
+
+        private long demand = 0;
+        private boolean started = false;
+        private boolean cancelled = false;
+        private RuntimeException error;
+
+        public RowSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        public void request(long n) {
+            RuntimeException rejected = null;
+            boolean start = false;
+
+            synchronized (this) {
+                if(cancelled)
+                    return;
+
+                if(n <= 0) {
+                    cancelled = true;
+                    error = new IllegalArgumentException("request 는 0 보다 커야 합니다. [" + n + "]");
+                    if(!started)
+                        rejected = error;
+                    notifyAll();
+                }
+                else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    if(!started)
+                        start = started = true;
+                    notifyAll();
+                }
+            }
+
+            if(rejected != null)
+                subscriber.onError(rejected);
+
+            if(start) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException e) {
+                    synchronized (this) {
+                        cancelled = true;
+                    }
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                notifyAll();
+            }
+        }
+
+        public void run() {
+            RuntimeException failure = null;
+            try {
+                template.queryWithRowHandler(statementId, parameter, this);
+            } catch (RuntimeException e) {
+                // cancel() 로 중단된 경우에는 iBatis 가 감싼 SubscriptionCancelledException 이 넘어온다.
+                failure = e;
+            }
+
+            synchronized (this) {
+                if(error != null)
+                    failure = error;
+                else if(cancelled)
+                    return;
+                cancelled = true;
+            }
+
+            if(failure != null)
+                subscriber.onError(failure);
+            else
+                subscriber.onComplete();
+        }
+
+        @SuppressWarnings("unchecked")
+        public void handleRow(Object row) {
+            synchronized (this) {
+                try {
+                    while(demand == 0 && !cancelled) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelled = true;
+                    error = new IllegalStateException("request 를 기다리는 중에 interrupt 되었습니다.", e);
+                }
+
+                if(cancelled)
+                    throw new SubscriptionCancelledException();
+
+                if(demand != Long.MAX_VALUE)
+                    demand--;
+            }
+
+            try {
+                subscriber.onNext((T) row);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    cancelled = true;
+                }
+                throw new SubscriptionCancelledException();
+            }
+        }
+
+    }
+
+    private static class SubscriptionCancelledException extends RuntimeException {
+
+        private static final long serialVersionUID = 6094612883418337310L;
+
+    }
+
+}
@@ -0,0 +1,133 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.SqlMapClientUtils.BoundSql;
+import kr.arawn.springframework.data.sqlmap.repository.support.CurrentRepositoryMethod;
+import kr.arawn.springframework.data.sqlmap.repository.support.ParameterSanitizer;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementExecution;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementInterceptor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import com.ibatis.sqlmap.client.SqlMapClient;
+
+/**
+ * threshold 보다 오래 걸린 statement 를 statement id, Repository 메소드, parameter, row 수, 실행 시간과 함께 남긴다.
+ *
+ * explainExecutor 를 설정하면 select statement 의 실행 계획(explainPrefix + SQL)을 그 executor 에서 조회해서
+ * 함께 남긴다. 실행 계획은 별도의 커넥션으로 조회하므로 호출한 쓰레드를 붙잡지 않는다.
+ */
+public class SlowStatementLogger implements StatementInterceptor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SlowStatementLogger.class);
+    
+    public static final String DEFAULT_EXPLAIN_PREFIX = "EXPLAIN PLAN FOR ";
+    
+    private final SqlMapClient sqlMapClient;
+    private final long thresholdNanos;
+    
+    private ParameterSanitizer parameterSanitizer = new ParameterSanitizer();
+    private JdbcTemplate explainTemplate;
+    private TaskExecutor explainExecutor;
+    private String explainPrefix = DEFAULT_EXPLAIN_PREFIX;
+    
+    /**
+     * @param threshold milli 초
+     */
+    public SlowStatementLogger(SqlMapClient sqlMapClient, long threshold) {
+        Assert.notNull(sqlMapClient, "sqlMapClient must not be null");
+        Assert.isTrue(threshold >= 0, "threshold must not be negative");
+        
+        this.sqlMapClient = sqlMapClient;
+        this.thresholdNanos = threshold * 1000000L;
+    }
+    
+    public void setParameterSanitizer(ParameterSanitizer parameterSanitizer) {
+        Assert.notNull(parameterSanitizer);
+        this.parameterSanitizer = parameterSanitizer;
+    }
+    
+    /**
+     * 실행 계획을 조회할 DataSource 와 executor, 둘 중 하나라도 null 이면 실행 계획을 조회하지 않는다.
+     */
+    public void setExplain(DataSource dataSource, TaskExecutor explainExecutor) {
+        this.explainTemplate = dataSource == null ? null : new JdbcTemplate(dataSource);
+        this.explainExecutor = explainExecutor;
+    }
+    
+    public void setExplainPrefix(String explainPrefix) {
+        Assert.hasText(explainPrefix);
+        this.explainPrefix = explainPrefix;
+    }
+    
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+    
+    public Object intercept(StatementExecution execution) {
+        long start = System.nanoTime();
+        try {
+            Object result = execution.proceed();
+            log(execution.getStatementId(), execution.getParameter(), execution.getRows(), System.nanoTime() - start, false);
+            return result;
+        } catch (RuntimeException e) {
+            log(execution.getStatementId(), execution.getParameter(), 0, System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+    
+    public void log(String statementId, Object parameter, int rows, long elapsedNanos, boolean failed) {
+        if(!isSlow(elapsedNanos) || !logger.isWarnEnabled())
+            return;
+        
+        final String entry = String.format("slow statement %s (%s) : %.3fms, %d rows%s, parameters %s",
+                statementId, CurrentRepositoryMethod.get(), elapsedNanos / 1000000d, rows, 
+                failed ? ", failed" : "", parameterSanitizer.sanitize(parameter));
+        
+        final BoundSql boundSql;
+        if(explainTemplate == null || explainExecutor == null 
+                || (boundSql = SqlMapClientUtils.getBoundSelect(sqlMapClient, statementId, parameter)) == null) {
+            logger.warn(entry);
+            return;
+        }
+        
+        try {
+            explainExecutor.execute(new Runnable() {
+                public void run() {
+                    logger.warn("{}\n{}", entry, explain(boundSql));
+                }
+            });
+        } catch (TaskRejectedException e) {
+            logger.warn("{}\n실행 계획을 조회하는 쓰레드가 모두 사용 중이어서 생략합니다.", entry);
+        } catch (RuntimeException e) {
+            logger.warn(entry);
+            logger.debug("실행 계획을 조회하지 못했습니다.", e);
+        }
+    }
+    
+    protected String explain(BoundSql boundSql) {
+        try {
+            List<Map<String, Object>> rows = explainTemplate.queryForList(explainPrefix + boundSql.getSql(), boundSql.getValues());
+            
+            StringBuilder plan = new StringBuilder();
+            for(Map<String, Object> row : rows) {
+                if(plan.length() > 0)
+                    plan.append('\n');
+                plan.append(row.size() == 1 ? row.values().iterator().next() : row);
+            }
+            return plan.toString();
+        } catch (RuntimeException e) {
+            return "실행 계획을 조회하지 못했습니다. : " + e.getMessage();
+        }
+    }
+
+}
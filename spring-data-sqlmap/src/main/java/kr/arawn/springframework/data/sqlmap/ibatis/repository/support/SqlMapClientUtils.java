@@ -0,0 +1,99 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import com.ibatis.sqlmap.client.SqlMapClient;
+import com.ibatis.sqlmap.client.SqlMapException;
+import com.ibatis.sqlmap.engine.impl.ExtendedSqlMapClient;
+import com.ibatis.sqlmap.engine.mapping.parameter.ParameterMap;
+import com.ibatis.sqlmap.engine.mapping.sql.Sql;
+import com.ibatis.sqlmap.engine.mapping.statement.InsertStatement;
+import com.ibatis.sqlmap.engine.mapping.statement.MappedStatement;
+import com.ibatis.sqlmap.engine.mapping.statement.SelectKeyStatement;
+import com.ibatis.sqlmap.engine.mapping.statement.SelectStatement;
+import com.ibatis.sqlmap.engine.scope.SessionScope;
+import com.ibatis.sqlmap.engine.scope.StatementScope;
+
+/**
+ * SqlMapClient 에 등록된 MappedStatement 정보를 조회하기 위한 유틸리티
+ */
+public abstract class SqlMapClientUtils {
+
+    /**
+     * statementId 로 등록된 MappedStatement 가 있는지 확인한다.
+     * MappedStatement 를 조회할 수 없는 SqlMapClient 라면 false 를 반환한다.
+     */
+    public static boolean isMappedStatement(SqlMapClient sqlMapClient, String statementId) {
+        return getMappedStatement(sqlMapClient, statementId) != null;
+    }
+
+    /**
+     * insert statement 가 SQL 실행 후에 selectKey 를 실행하는지 확인한다.
+     * 이 경우 JDBC batch 안에서는 생성된 키를 얻을 수 없다.
+     * MappedStatement 를 조회할 수 없으면 안전하게 true 를 반환한다.
+     */
+    public static boolean isSelectKeyRunAfterInsert(SqlMapClient sqlMapClient, String statementId) {
+        MappedStatement mappedStatement = getMappedStatement(sqlMapClient, statementId);
+        if(mappedStatement == null)
+            return true;
+        if(!(mappedStatement instanceof InsertStatement))
+            return false;
+
+        SelectKeyStatement selectKey = ((InsertStatement) mappedStatement).getSelectKeyStatement();
+        return selectKey != null && selectKey.isRunAfterSQL();
+    }
+
+    /**
+     * select statement 를 parameter 로 실행할 때의 SQL 과 bind 값을 만든다.
+     * select statement 가 아니거나 만들 수 없으면 null 을 반환한다.
+     */
+    public static BoundSql getBoundSelect(SqlMapClient sqlMapClient, String statementId, Object parameter) {
+        MappedStatement mappedStatement = getMappedStatement(sqlMapClient, statementId);
+        if(!(mappedStatement instanceof SelectStatement))
+            return null;
+
+        try {
+            StatementScope statementScope = new StatementScope(new SessionScope());
+            mappedStatement.initRequest(statementScope);
+
+            Sql sql = mappedStatement.getSql();
+            String sqlText = sql.getSql(statementScope, parameter);
+            ParameterMap parameterMap = sql.getParameterMap(statementScope, parameter);
+            Object[] values = parameterMap.getParameterObjectValues(statementScope, parameter);
+
+            return new BoundSql(sqlText, values == null ? new Object[0] : values);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static MappedStatement getMappedStatement(SqlMapClient sqlMapClient, String statementId) {
+        if(!(sqlMapClient instanceof ExtendedSqlMapClient))
+            return null;
+
+        try {
+            return ((ExtendedSqlMapClient) sqlMapClient).getMappedStatement(statementId);
+        } catch (SqlMapException e) {
+            return null;
+        }
+    }
+
+    public static class BoundSql {
+
+        private final String sql;
+        private final Object[] values;
+
+        public BoundSql(String sql, Object[] values) {
+            this.sql = sql;
+            this.values = values;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public Object[] getValues() {
+            return values;
+        }
+
+    }
+
+}
@@ -0,0 +1,14 @@
+package kr.arawn.springframework.data.sqlmap.repository;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * 조회 결과를 한 건씩 읽어오는 Iterator
+ * 끝까지 읽지 않았다면 반드시 close() 를 호출해 조회를 중단해야 한다.
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+    void close();
+    
+}
@@ -0,0 +1,24 @@
+package kr.arawn.springframework.data.sqlmap.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Repository 로 조회한 entity 인스턴스의 snapshot 을 남겨두고 save 할 때 같은 인스턴스의 snapshot 과 비교한다.
+ * 변경된 property 가 없으면 update 를 생략하고, update_dirty statement 가 선언되어 있으면
+ * 변경된 property 만 넘겨 실행한다. save 한 entity 의 snapshot 은 지워지므로 다시 조회해야 추적된다.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface DirtyTracking {
+
+    /**
+     * 최대 snapshot 수, 넘어서면 가장 오래 사용되지 않은 snapshot 부터 제거된다.
+     */
+    int maxSize() default 10000;
+    
+}
@@ -0,0 +1,30 @@
+package kr.arawn.springframework.data.sqlmap.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Repository 의 findOne 결과를 id 별로 캐시한다.
+ * save, delete, deleteAll, 변경(modifying) statement 가 실행되면 캐시가 무효화된다.
+ * 캐시에는 복사본이 저장되고 findOne 은 매번 새 복사본을 반환하므로 호출한 쪽의 변경은 save 전까지 다른 호출에 보이지 않는다.
+ * statementMetrics 가 설정되어 있으면 hit/miss/eviction 수가 Repository interface 이름으로 함께 노출된다.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface EntityCaching {
+
+    /**
+     * 최대 entity 수, 넘어서면 가장 오래 사용되지 않은 entity 부터 제거된다.
+     */
+    int maxSize() default 1000;
+    
+    /**
+     * 캐시 유지 시간(ms), 0 이하면 만료되지 않는다.
+     */
+    long timeToLive() default 60000;
+    
+}
@@ -0,0 +1,18 @@
+package kr.arawn.springframework.data.sqlmap.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 이름이 id 가 아닌 entity 의 식별자 필드에 선언한다.
+ * 복합키는 key class 를 type 으로 하는 필드 하나에 선언하고, sqlmap 에서는 #key.property# 로 참조한다.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+@Documented
+public @interface EntityId {
+
+}
@@ -0,0 +1,21 @@
+package kr.arawn.springframework.data.sqlmap.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * nextId statement 가 선언된 Repository 에서 sequence 값 하나로 할당할 id 의 수
+ * sequence 의 증가폭(INCREMENT BY)은 allocationSize 와 같아야 한다.
+ * 선언하지 않으면 저장할 때마다 nextId statement 를 실행한다.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface IdAllocation {
+    
+    int allocationSize() default 50;
+
+}
@@ -0,0 +1,101 @@
+package kr.arawn.springframework.data.sqlmap.repository;
+
+import java.io.Serializable;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * keyset(seek) 방식의 페이지 요청
+ * 
+ * after 는 이전 페이지의 마지막 키(cursor)이며, 첫 페이지는 null 이다.
+ * statement 에는 LIMIT/OFFSET 대신 after 보다 큰(작은) 키를 fetchSize 만큼 조회하도록 작성한다.
+ * 
+ * <pre>
+ * SELECT * FROM SPRINGSPROUT
+ * &lt;isNotNull property="after"&gt; WHERE ID &gt; #after# &lt;/isNotNull&gt;
+ * ORDER BY ID LIMIT #fetchSize#
+ * </pre>
+ */
+public class Keyset implements Serializable {
+    
+    private static final long serialVersionUID = 3166153125283839327L;
+
+    public static final String DEFAULT_PROPERTY = "id";
+    
+    private final String property;
+    private final Object after;
+    private final int size;
+    
+    public Keyset(int size) {
+        this(null, size);
+    }
+    
+    public Keyset(Object after, int size) {
+        this(DEFAULT_PROPERTY, after, size);
+    }
+    
+    public Keyset(String property, Object after, int size) {
+        Assert.hasText(property, "property must not be empty");
+        Assert.isTrue(size > 0, "size must be greater than 0");
+        
+        this.property = property;
+        this.after = after;
+        this.size = size;
+    }
+    
+    /**
+     * cursor 로 사용할 entity 의 property(field) 이름
+     */
+    public String getProperty() {
+        return property;
+    }
+    
+    public Object getAfter() {
+        return after;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    /**
+     * 다음 페이지가 있는지 확인하기 위해 size 보다 한 건 더 조회한다.
+     */
+    public int getFetchSize() {
+        return size + 1;
+    }
+    
+    public boolean isFirst() {
+        return after == null;
+    }
+    
+    public Keyset next(Object cursor) {
+        return new Keyset(property, cursor, size);
+    }
+    
+    /**
+     * query 결과 캐시와 동시 조회 합치기의 키로 사용되므로 값으로 비교한다.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj)
+            return true;
+        if(!(obj instanceof Keyset))
+            return false;
+        
+        Keyset other = (Keyset) obj;
+        return size == other.size && property.equals(other.property) && ObjectUtils.nullSafeEquals(after, other.after);
+    }
+    
+    @Override
+    public int hashCode() {
+        return (property.hashCode() * 31 + ObjectUtils.nullSafeHashCode(after)) * 31 + size;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Keyset [property=%s, after=%s, size=%d]", property, after, size);
+    }
+
+}
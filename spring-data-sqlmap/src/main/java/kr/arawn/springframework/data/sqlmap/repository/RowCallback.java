@@ -0,0 +1,10 @@
+package kr.arawn.springframework.data.sqlmap.repository;
+
+/**
+ * 조회 결과를 List 로 모으지 않고 한 건씩 처리하기 위한 callback
+ */
+public interface RowCallback<T> {
+
+    void processRow(T row);
+    
+}
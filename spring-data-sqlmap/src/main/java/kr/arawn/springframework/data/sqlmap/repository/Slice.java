@@ -0,0 +1,89 @@
+package kr.arawn.springframework.data.sqlmap.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.util.Assert;
+
+/**
+ * 전체 건수 없이 다음 페이지 존재 여부와 cursor 만을 가지는 keyset 페이지 결과
+ */
+public class Slice<T> implements Iterable<T> {
+    
+    private final List<T> content;
+    private final Keyset keyset;
+    private final boolean hasNext;
+    private final Object cursor;
+    
+    public Slice(List<T> content, Keyset keyset, boolean hasNext, Object cursor) {
+        Assert.notNull(content);
+        Assert.notNull(keyset);
+        
+        this.content = Collections.unmodifiableList(content);
+        this.keyset = keyset;
+        this.hasNext = hasNext;
+        this.cursor = cursor;
+    }
+    
+    /**
+     * keyset.getFetchSize() 만큼 조회된 결과로 Slice 를 만든다.
+     * size 를 넘는 마지막 한 건은 다음 페이지 존재 여부를 판단하는데만 사용한다.
+     */
+    public static <T> Slice<T> of(List<T> rows, Keyset keyset) {
+        boolean hasNext = rows.size() > keyset.getSize();
+        List<T> content = hasNext ? new ArrayList<T>(rows.subList(0, keyset.getSize())) : rows;
+        
+        Object cursor = null;
+        if(!content.isEmpty())
+            cursor = new DirectFieldAccessor(content.get(content.size() - 1)).getPropertyValue(keyset.getProperty());
+        
+        return new Slice<T>(content, keyset, hasNext, cursor);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public int getNumberOfElements() {
+        return content.size();
+    }
+    
+    public boolean hasContent() {
+        return !content.isEmpty();
+    }
+    
+    public boolean hasNext() {
+        return hasNext;
+    }
+    
+    /**
+     * 현재 페이지의 마지막 키
+     */
+    public Object getCursor() {
+        return cursor;
+    }
+    
+    public Keyset getKeyset() {
+        return keyset;
+    }
+    
+    /**
+     * 다음 페이지를 seek 하기 위한 Keyset, 다음 페이지가 없으면 null
+     */
+    public Keyset nextKeyset() {
+        return hasNext ? keyset.next(cursor) : null;
+    }
+
+    public Iterator<T> iterator() {
+        return content.iterator();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Slice [size=%d, hasNext=%s, cursor=%s]", content.size(), hasNext, cursor);
+    }
+
+}
@@ -2,11 +2,15 @@ package kr.arawn.springframework.data.sqlmap.repository;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
 
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Transactional(readOnly = true)
@@ -33,6 +37,16 @@ public interface SqlmapRepository<T, ID extends Serializable> extends
     List<T> save(List<? extends T> entities);
 
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.springframework.data.repository.Repository#save(java.lang.Iterable)
+     */
+    @Transactional
+    Iterable<T> save(Iterable<? extends T> entities);
+
+
     /*
      * (non-Javadoc)
      * 
@@ -51,6 +65,12 @@ public interface SqlmapRepository<T, ID extends Serializable> extends
      * )
      */
     boolean exists(ID id);
+    
+    
+    /**
+     * ids 중 존재하는 id 만 반환한다.
+     */
+    Set<ID> existsAll(Iterable<ID> ids);
 
 
     /*
@@ -59,6 +79,56 @@ public interface SqlmapRepository<T, ID extends Serializable> extends
      * @see org.springframework.data.repository.Repository#findAll()
      */
     List<T> findAll();
+    
+    
+    /**
+     * findAllByIds statement 로 ids 에 해당하는 entity 를 조회해 ids 의 순서대로 반환한다.
+     * 트랜잭션 밖에서 호출되고 parallelQueryExecutor 가 설정되어 있으면 IN (...) 조건의 chunk 들을 동시에 실행한다. 
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    List<T> findAll(Iterable<ID> ids);
+    
+    
+    /**
+     * findOne(id) 을 asyncExecutor 에서 실행한다. 호출한 쓰레드의 트랜잭션에는 참여하지 않는다.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    Future<T> findOneAsync(ID id);
+    
+    
+    /**
+     * findAll(ids) 를 asyncExecutor 에서 실행한다. 호출한 쓰레드의 트랜잭션에는 참여하지 않는다.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    Future<List<T>> findAllAsync(Iterable<ID> ids);
+    
+    
+    /**
+     * count() 를 asyncExecutor 에서 실행한다. 호출한 쓰레드의 트랜잭션에는 참여하지 않는다.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    Future<Long> countAsync();
+    
+    
+    /**
+     * findAll statement 의 결과를 List 로 모으지 않고 한 건씩 callback 으로 넘긴다.
+     */
+    void findAll(RowCallback<T> callback);
+    
+    
+    /**
+     * findAll statement 의 결과를 한 건씩 읽는 Iterator 를 반환한다.
+     * 조회는 별도의 쓰레드와 커넥션에서 실행되며, 다 읽지 않았다면 close() 를 호출해야 한다.
+     * close() 하지 않고 60초 동안 읽지 않으면 조회가 중단되고 hasNext() 는 IllegalStateException 을 던진다.
+     */
+    CloseableIterator<T> iterateAll();
+    
+    
+    /**
+     * findAll statement 의 결과를 구독자의 request(n) 만큼씩 넘기는 Publisher 를 반환한다.
+     * 구독할 때마다 별도의 쓰레드와 커넥션에서 조회가 실행된다.
+     */
+    Publisher<T> findAllPublisher();
 
 
     /*
@@ -89,6 +159,16 @@ public interface SqlmapRepository<T, ID extends Serializable> extends
     void delete(List<? extends T> entities);
 
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * org.springframework.data.repository.Repository#delete(java.lang.Iterable)
+     */
+    @Transactional
+    void delete(Iterable<? extends T> entities);
+
+
     /*
      * (non-Javadoc)
      * 
@@ -96,6 +176,13 @@ public interface SqlmapRepository<T, ID extends Serializable> extends
      */
     @Transactional
     void deleteAll();
+    
+    
+    /**
+     * {@link WriteBehind} Repository 가 현재 트랜잭션에 모아둔 쓰기를 지금 실행한다.
+     */
+    @Transactional
+    void flush();
 
 
     /*
@@ -106,6 +193,12 @@ public interface SqlmapRepository<T, ID extends Serializable> extends
      * (org.springframework.data.domain.Sort)
      */
     List<T> findAll(Sort sort);
+    
+    
+    /**
+     * findAll_Sort statement 의 결과를 한 건씩 callback 으로 넘긴다.
+     */
+    void findAll(Sort sort, RowCallback<T> callback);
 
 
     /*
@@ -117,4 +210,11 @@ public interface SqlmapRepository<T, ID extends Serializable> extends
      */
     Page<T> findAll(Pageable pageable);
     
+    
+    /**
+     * findAll_Keyset statement 로 keyset.getAfter() 이후의 entity 를 조회한다.
+     * count 쿼리는 실행하지 않는다.
+     */
+    Slice<T> findAll(Keyset keyset);
+    
 }
@@ -0,0 +1,21 @@
+package kr.arawn.springframework.data.sqlmap.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 트랜잭션 안에서 실행한 save, delete 를 바로 실행하지 않고 모아두었다가 커밋 직전에 JDBC batch 로 실행한다.
+ * 같은 id 의 save 는 마지막 한번으로 합쳐지고, 저장하지 않은 entity 의 delete 는 실행되지 않는다.
+ * 
+ * 같은 Repository 로 조회하면 먼저 모아둔 쓰기를 실행하며, findOne 과 exists 는 모아둔 entity 로 답한다.
+ * SqlMapClientTemplate 을 직접 사용하는 코드는 flush() 를 호출한 후에 실행해야 변경을 볼 수 있다.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface WriteBehind {
+
+}
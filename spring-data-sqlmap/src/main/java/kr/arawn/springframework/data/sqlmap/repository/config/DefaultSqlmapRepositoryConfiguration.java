@@ -1,11 +1,15 @@
 package kr.arawn.springframework.data.sqlmap.repository.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import kr.arawn.springframework.data.sqlmap.repository.SqlmapRepository;
 
 import org.springframework.data.repository.config.AutomaticRepositoryConfigInformation;
 import org.springframework.data.repository.config.ManualRepositoryConfigInformation;
 import org.springframework.data.repository.config.RepositoryConfig;
 import org.springframework.data.repository.config.SingleRepositoryConfigInformation;
+import org.springframework.util.xml.DomUtils;
 import org.w3c.dom.Element;
 
 
@@ -16,6 +20,21 @@ public class DefaultSqlmapRepositoryConfiguration
     private static final String FACTORY_CLASS = 
         "kr.arawn.springframework.data.sqlmap.ibatis.repository.factory.SqlMapClientRepositoryFactoryBean";
     private static final String SQLMAP_EXECUTOR_REF = "sqlmap-executor-ref";
+    private static final String BATCH_SIZE = "batch-size";
+    private static final String COUNT_CACHE_TTL = "count-cache-ttl";
+    private static final String STREAMING_EXECUTOR_REF = "streaming-executor-ref";
+    private static final String PARALLEL_QUERY_EXECUTOR_REF = "parallel-query-executor-ref";
+    private static final String QUERY_CACHE_MAX_WEIGHT = "query-cache-max-weight";
+    private static final String COALESCE_QUERIES = "coalesce-queries";
+    private static final String ASYNC_EXECUTOR_REF = "async-executor-ref";
+    private static final String STATEMENT_METRICS_REF = "statement-metrics-ref";
+    private static final String SLOW_STATEMENT_THRESHOLD = "slow-statement-threshold";
+    private static final String EXPLAIN_SLOW_STATEMENTS = "explain-slow-statements";
+    private static final String EXPLAIN_EXECUTOR_REF = "explain-executor-ref";
+    private static final String OPERATION_EVENTS_REF = "operation-events-ref";
+    private static final String STATEMENT_INTERCEPTORS = "statement-interceptors";
+    private static final String INTERCEPTOR = "interceptor";
+    private static final String REF = "ref";
     
     protected DefaultSqlmapRepositoryConfiguration(Element repositoriesElement) {
         super(repositoriesElement, FACTORY_CLASS);
@@ -32,6 +51,67 @@ public class DefaultSqlmapRepositoryConfiguration
     public String getSqlmapExecutorRef() {
         return getSource().getAttribute(SQLMAP_EXECUTOR_REF);
     }
+    
+    public String getBatchSize() {
+        return getSource().getAttribute(BATCH_SIZE);
+    }
+    
+    public String getCountCacheTtl() {
+        return getSource().getAttribute(COUNT_CACHE_TTL);
+    }
+    
+    public String getStreamingExecutorRef() {
+        return getSource().getAttribute(STREAMING_EXECUTOR_REF);
+    }
+    
+    public String getParallelQueryExecutorRef() {
+        return getSource().getAttribute(PARALLEL_QUERY_EXECUTOR_REF);
+    }
+    
+    public String getQueryCacheMaxWeight() {
+        return getSource().getAttribute(QUERY_CACHE_MAX_WEIGHT);
+    }
+    
+    public String getCoalesceQueries() {
+        return getSource().getAttribute(COALESCE_QUERIES);
+    }
+    
+    public String getAsyncExecutorRef() {
+        return getSource().getAttribute(ASYNC_EXECUTOR_REF);
+    }
+    
+    public String getStatementMetricsRef() {
+        return getSource().getAttribute(STATEMENT_METRICS_REF);
+    }
+    
+    public String getSlowStatementThreshold() {
+        return getSource().getAttribute(SLOW_STATEMENT_THRESHOLD);
+    }
+    
+    public String getExplainSlowStatements() {
+        return getSource().getAttribute(EXPLAIN_SLOW_STATEMENTS);
+    }
+    
+    public String getExplainExecutorRef() {
+        return getSource().getAttribute(EXPLAIN_EXECUTOR_REF);
+    }
+    
+    public String getOperationEventsRef() {
+        return getSource().getAttribute(OPERATION_EVENTS_REF);
+    }
+    
+    public List<String> getStatementInterceptorRefs() {
+        List<String> refs = new ArrayList<String>();
+        
+        Element interceptors = DomUtils.getChildElementByTagName(getSource(), STATEMENT_INTERCEPTORS);
+        if(interceptors != null) {
+            for(Element interceptor : DomUtils.getChildElementsByTagName(interceptors, INTERCEPTOR)) {
+                refs.add(interceptor.getAttribute(REF));
+            }
+        }
+        
+        return refs;
+    }
 
     @Override
     protected SqlmapRepositoryConfiguration createSingleRepositoryConfigInformationFor(Element element) {
@@ -42,6 +122,32 @@ public class DefaultSqlmapRepositoryConfiguration
             extends SingleRepositoryConfigInformation<DefaultSqlmapRepositoryConfiguration> {
 
         String getSqlmapExecutorRef();
+        
+        String getBatchSize();
+        
+        String getCountCacheTtl();
+        
+        String getStreamingExecutorRef();
+        
+        String getParallelQueryExecutorRef();
+        
+        String getQueryCacheMaxWeight();
+        
+        String getCoalesceQueries();
+        
+        String getAsyncExecutorRef();
+        
+        String getStatementMetricsRef();
+        
+        String getSlowStatementThreshold();
+        
+        String getExplainSlowStatements();
+        
+        String getExplainExecutorRef();
+        
+        String getOperationEventsRef();
+        
+        List<String> getStatementInterceptorRefs();
     }
 
     private static class AutomaticSqlmapRepositoryConfigInformation 
@@ -56,6 +162,58 @@ public class DefaultSqlmapRepositoryConfiguration
         public String getSqlmapExecutorRef() {
             return getParent().getSqlmapExecutorRef();
         }
+        
+        public String getBatchSize() {
+            return getParent().getBatchSize();
+        }
+        
+        public String getCountCacheTtl() {
+            return getParent().getCountCacheTtl();
+        }
+        
+        public String getStreamingExecutorRef() {
+            return getParent().getStreamingExecutorRef();
+        }
+        
+        public String getParallelQueryExecutorRef() {
+            return getParent().getParallelQueryExecutorRef();
+        }
+        
+        public String getQueryCacheMaxWeight() {
+            return getParent().getQueryCacheMaxWeight();
+        }
+        
+        public String getCoalesceQueries() {
+            return getParent().getCoalesceQueries();
+        }
+        
+        public String getAsyncExecutorRef() {
+            return getParent().getAsyncExecutorRef();
+        }
+        
+        public String getStatementMetricsRef() {
+            return getParent().getStatementMetricsRef();
+        }
+        
+        public String getSlowStatementThreshold() {
+            return getParent().getSlowStatementThreshold();
+        }
+        
+        public String getExplainSlowStatements() {
+            return getParent().getExplainSlowStatements();
+        }
+        
+        public String getExplainExecutorRef() {
+            return getParent().getExplainExecutorRef();
+        }
+        
+        public String getOperationEventsRef() {
+            return getParent().getOperationEventsRef();
+        }
+        
+        public List<String> getStatementInterceptorRefs() {
+            return getParent().getStatementInterceptorRefs();
+        }
 
     }
 
@@ -71,6 +229,58 @@ public class DefaultSqlmapRepositoryConfiguration
         public String getSqlmapExecutorRef() {
             return getAttribute(SQLMAP_EXECUTOR_REF);
         }
+        
+        public String getBatchSize() {
+            return getAttribute(BATCH_SIZE);
+        }
+        
+        public String getCountCacheTtl() {
+            return getAttribute(COUNT_CACHE_TTL);
+        }
+        
+        public String getStreamingExecutorRef() {
+            return getAttribute(STREAMING_EXECUTOR_REF);
+        }
+        
+        public String getParallelQueryExecutorRef() {
+            return getAttribute(PARALLEL_QUERY_EXECUTOR_REF);
+        }
+        
+        public String getQueryCacheMaxWeight() {
+            return getAttribute(QUERY_CACHE_MAX_WEIGHT);
+        }
+        
+        public String getCoalesceQueries() {
+            return getAttribute(COALESCE_QUERIES);
+        }
+        
+        public String getAsyncExecutorRef() {
+            return getAttribute(ASYNC_EXECUTOR_REF);
+        }
+        
+        public String getStatementMetricsRef() {
+            return getAttribute(STATEMENT_METRICS_REF);
+        }
+        
+        public String getSlowStatementThreshold() {
+            return getAttribute(SLOW_STATEMENT_THRESHOLD);
+        }
+        
+        public String getExplainSlowStatements() {
+            return getAttribute(EXPLAIN_SLOW_STATEMENTS);
+        }
+        
+        public String getExplainExecutorRef() {
+            return getAttribute(EXPLAIN_EXECUTOR_REF);
+        }
+        
+        public String getOperationEventsRef() {
+            return getAttribute(OPERATION_EVENTS_REF);
+        }
+        
+        public List<String> getStatementInterceptorRefs() {
+            return getParent().getStatementInterceptorRefs();
+        }
     }
 
 }
@@ -1,15 +1,20 @@
 package kr.arawn.springframework.data.sqlmap.repository.config;
 
+import java.util.List;
+
 import kr.arawn.springframework.data.sqlmap.repository.config.DefaultSqlmapRepositoryConfiguration.SqlmapRepositoryConfiguration;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.ManagedList;
 import org.springframework.data.repository.config.AbstractRepositoryConfigDefinitionParser;
 import org.springframework.orm.ibatis.SqlMapClientTemplate;
+import org.springframework.util.StringUtils;
 import org.w3c.dom.Element;
 
 
@@ -58,6 +63,63 @@ public class SqlmapRepositoryConfigDefinitionParser
         else {
             builder.addPropertyReference("sqlmapExecutor", context.getSqlmapExecutorRef());
         }
+        
+        if(StringUtils.hasText(context.getBatchSize())) {
+            builder.addPropertyValue("batchSize", context.getBatchSize());
+        }
+        
+        if(StringUtils.hasText(context.getCountCacheTtl())) {
+            builder.addPropertyValue("countCacheTimeToLive", context.getCountCacheTtl());
+        }
+        
+        if(StringUtils.hasText(context.getStreamingExecutorRef())) {
+            builder.addPropertyReference("streamingExecutor", context.getStreamingExecutorRef());
+        }
+        
+        if(StringUtils.hasText(context.getParallelQueryExecutorRef())) {
+            builder.addPropertyReference("parallelQueryExecutor", context.getParallelQueryExecutorRef());
+        }
+        
+        if(StringUtils.hasText(context.getQueryCacheMaxWeight())) {
+            builder.addPropertyValue("queryCacheMaxWeight", context.getQueryCacheMaxWeight());
+        }
+        
+        if(StringUtils.hasText(context.getCoalesceQueries())) {
+            builder.addPropertyValue("coalesceQueries", context.getCoalesceQueries());
+        }
+        
+        if(StringUtils.hasText(context.getAsyncExecutorRef())) {
+            builder.addPropertyReference("asyncExecutor", context.getAsyncExecutorRef());
+        }
+        
+        if(StringUtils.hasText(context.getStatementMetricsRef())) {
+            builder.addPropertyReference("statementMetrics", context.getStatementMetricsRef());
+        }
+        
+        if(StringUtils.hasText(context.getSlowStatementThreshold())) {
+            builder.addPropertyValue("slowStatementThreshold", context.getSlowStatementThreshold());
+        }
+        
+        if(StringUtils.hasText(context.getExplainSlowStatements())) {
+            builder.addPropertyValue("explainSlowStatements", context.getExplainSlowStatements());
+        }
+        
+        if(StringUtils.hasText(context.getExplainExecutorRef())) {
+            builder.addPropertyReference("explainExecutor", context.getExplainExecutorRef());
+        }
+        
+        if(StringUtils.hasText(context.getOperationEventsRef())) {
+            builder.addPropertyReference("operationEvents", context.getOperationEventsRef());
+        }
+        
+        List<String> interceptorRefs = context.getStatementInterceptorRefs();
+        if(!interceptorRefs.isEmpty()) {
+            ManagedList<RuntimeBeanReference> interceptors = new ManagedList<RuntimeBeanReference>(interceptorRefs.size());
+            for(String interceptorRef : interceptorRefs) {
+                interceptors.add(new RuntimeBeanReference(interceptorRef));
+            }
+            builder.addPropertyValue("statementInterceptors", interceptors);
+        }
     }
     
     protected BeanDefinition getSqlMapClientTemplateBeanDefinition(BeanDefinition sqlMapClientBeanDefinition) {
@@ -0,0 +1,14 @@
+package kr.arawn.springframework.data.sqlmap.repository.factory;
+
+/**
+ * entity 의 id 를 읽고 쓴다.
+ * 
+ * @see IdAccessorGenerator
+ */
+public interface IdAccessor {
+    
+    Object getId(Object entity);
+    
+    void setId(Object entity, Object id);
+
+}
@@ -0,0 +1,142 @@
+package kr.arawn.springframework.data.sqlmap.repository.factory;
+
+import java.beans.PropertyDescriptor;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.beans.BeanUtils;
+
+/**
+ * id 필드의 public getter/setter 를 직접 호출하는 {@link IdAccessor} class 를 만든다.
+ * 
+ * 만든 class 는 entity 의 ClassLoader 를 부모로 하는 별도의 ClassLoader 에 정의되므로 public 접근자만 호출할 수 있다.
+ * 접근자가 없거나, id type 이 primitive 이거나, class 를 정의할 수 없으면 {@link ReflectionIdAccessor} 를 사용한다.
+ * 
+ * 만든 접근자는 entity class 별로 캐시한다. 접근자가 entity class 를 참조하므로 key 와 value 를 모두 약하게 잡아서
+ * 사용하는 곳이 없어지면 entity 의 ClassLoader 와 함께 정리되도록 한다.
+ */
+public abstract class IdAccessorGenerator implements Opcodes {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IdAccessorGenerator.class);
+    
+    private static final String ACCESSOR_INTERNAL_NAME = Type.getInternalName(IdAccessor.class);
+    private static final String OBJECT_INTERNAL_NAME = Type.getInternalName(Object.class);
+    
+    private static final AtomicInteger counter = new AtomicInteger();
+    private static final Map<Class<?>, Reference<IdAccessor>> accessors = new WeakHashMap<Class<?>, Reference<IdAccessor>>();
+    
+    /**
+     * 같은 entity class 에는 같은 접근자를 반환한다.
+     */
+    public static IdAccessor create(Class<?> entityClass, Field field) {
+        synchronized (accessors) {
+            Reference<IdAccessor> reference = accessors.get(entityClass);
+            IdAccessor accessor = reference != null ? reference.get() : null;
+            if(accessor == null) {
+                accessor = createAccessor(entityClass, field);
+                accessors.put(entityClass, new WeakReference<IdAccessor>(accessor));
+            }
+            return accessor;
+        }
+    }
+    
+    private static IdAccessor createAccessor(Class<?> entityClass, Field field) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(entityClass, field.getName());
+        if(descriptor == null || field.getType().isPrimitive() || descriptor.getPropertyType() != field.getType()
+                || !isPublic(descriptor.getReadMethod()) || !isPublic(descriptor.getWriteMethod())) {
+            logger.debug("{} 의 id 접근자를 만들 수 없어 reflection 을 사용합니다.", entityClass.getName());
+            return new ReflectionIdAccessor(field);
+        }
+        
+        try {
+            return generate(entityClass, descriptor.getReadMethod(), descriptor.getWriteMethod());
+        } catch (Throwable ex) {
+            logger.debug(entityClass.getName() + " 의 id 접근자를 만들 수 없어 reflection 을 사용합니다.", ex);
+            return new ReflectionIdAccessor(field);
+        }
+    }
+    
+    private static boolean isPublic(Method method) {
+        return method != null 
+                && Modifier.isPublic(method.getModifiers()) 
+                && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+    
+    private static IdAccessor generate(Class<?> entityClass, Method getter, Method setter) throws Exception {
+        String className = entityClass.getName() + "$$IdAccessor$$" + counter.incrementAndGet();
+        
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className.replace('.', '/'), null, 
+                OBJECT_INTERNAL_NAME, new String[] { ACCESSOR_INTERNAL_NAME });
+        
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, OBJECT_INTERNAL_NAME, "<init>", "()V");
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        
+        String getterOwner = Type.getInternalName(getter.getDeclaringClass());
+        mv = cw.visitMethod(ACC_PUBLIC, "getId", "(Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(CHECKCAST, getterOwner);
+        mv.visitMethodInsn(INVOKEVIRTUAL, getterOwner, getter.getName(), Type.getMethodDescriptor(getter));
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        
+        String setterOwner = Type.getInternalName(setter.getDeclaringClass());
+        mv = cw.visitMethod(ACC_PUBLIC, "setId", "(Ljava/lang/Object;Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(CHECKCAST, setterOwner);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitTypeInsn(CHECKCAST, Type.getInternalName(setter.getParameterTypes()[0]));
+        mv.visitMethodInsn(INVOKEVIRTUAL, setterOwner, setter.getName(), Type.getMethodDescriptor(setter));
+        if(setter.getReturnType() != void.class)
+            mv.visitInsn(Type.getType(setter.getReturnType()).getSize() == 2 ? POP2 : POP);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        
+        cw.visitEnd();
+        
+        Class<?> accessorClass = new AccessorClassLoader(entityClass.getClassLoader()).define(className, cw.toByteArray());
+        return (IdAccessor) accessorClass.newInstance();
+    }
+    
+    private static class AccessorClassLoader extends ClassLoader {
+        
+        public AccessorClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+        
+        public Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+        
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if(IdAccessor.class.getName().equals(name))
+                return IdAccessor.class;
+            
+            return super.findClass(name);
+        }
+        
+    }
+
+}
@@ -0,0 +1,30 @@
+package kr.arawn.springframework.data.sqlmap.repository.factory;
+
+import java.lang.reflect.Field;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link Field} 로 id 를 읽고 쓴다. 접근자 class 를 만들 수 없을 때 사용한다.
+ */
+public class ReflectionIdAccessor implements IdAccessor {
+    
+    private final Field field;
+    
+    public ReflectionIdAccessor(Field field) {
+        Assert.notNull(field);
+        
+        this.field = field;
+        ReflectionUtils.makeAccessible(field);
+    }
+
+    public Object getId(Object entity) {
+        return ReflectionUtils.getField(field, entity);
+    }
+
+    public void setId(Object entity, Object id) {
+        ReflectionUtils.setField(field, entity, id);
+    }
+
+}
@@ -2,38 +2,100 @@ package kr.arawn.springframework.data.sqlmap.repository.factory;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import kr.arawn.springframework.data.sqlmap.repository.EntityId;
+import kr.arawn.springframework.data.sqlmap.repository.support.IdGenerator;
 
 import org.springframework.data.repository.support.AbstractEntityInformation;
 import org.springframework.data.repository.support.EntityInformation;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.NumberUtils;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.util.ReflectionUtils.FieldCallback;
+import org.springframework.util.ReflectionUtils.FieldFilter;
 
 public class SqlmapEntityInformation<T, ID extends Serializable> extends
         AbstractEntityInformation<T, ID> implements EntityInformation<T, ID> {
 
     private Field id;
+    private IdAccessor idAccessor;
+    private IdGenerator idGenerator;
     
     public SqlmapEntityInformation(Class<T> domainClass) {
         super(domainClass);
         
-        this.id = ReflectionUtils.findField(getJavaType(), "id");
+        this.id = findIdField(getJavaType());
         if(this.id == null)
             throw new IllegalArgumentException("entity 에 id 가 없습니다.");
         
-        ReflectionUtils.makeAccessible(this.id);
+        this.idAccessor = IdAccessorGenerator.create(getJavaType(), this.id);
+    }
+    
+    /**
+     * {@link EntityId} 가 선언된 필드, 없으면 이름이 id 인 필드
+     */
+    private static Field findIdField(Class<?> domainClass) {
+        final List<Field> fields = new ArrayList<Field>();
+        ReflectionUtils.doWithFields(domainClass, new FieldCallback() {
+            public void doWith(Field field) {
+                fields.add(field);
+            }
+        }, new FieldFilter() {
+            public boolean matches(Field field) {
+                return field.isAnnotationPresent(EntityId.class);
+            }
+        });
+        
+        if(fields.size() > 1)
+            throw new IllegalArgumentException(domainClass.getName() + " 에 @EntityId 가 여러 개 있습니다. 복합키는 key class 필드 하나에 선언하세요.");
+        
+        return fields.isEmpty() ? ReflectionUtils.findField(domainClass, "id") : fields.get(0);
     }
 
     @SuppressWarnings("unchecked")
     public ID getId(T entity) {
-        return (ID) ReflectionUtils.getField(id, entity);
+        return (ID) idAccessor.getId(entity);
     }
     
     public void setId(T entity, ID idValue) {
-        ReflectionUtils.setField(id, entity, idValue);
+        idAccessor.setId(entity, idValue);
     }
 
     @SuppressWarnings("unchecked")
     public Class<ID> getIdType() {
         return (Class<ID>) id.getType();
     }
+    
+    public String getIdPropertyName() {
+        return id.getName();
+    }
+    
+    /**
+     * 설정하면 저장하기 전에 {@link #assignId(Object)} 로 id 를 넣는다. id 는 숫자 type 이어야 한다.
+     */
+    public void setIdGenerator(IdGenerator idGenerator) {
+        if(idGenerator != null && !Number.class.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(id.getType())))
+            throw new IllegalArgumentException(getJavaType().getName() + " 의 id 가 숫자가 아니므로 IdGenerator 를 사용할 수 없습니다.");
+        
+        this.idGenerator = idGenerator;
+    }
+    
+    public boolean hasIdGenerator() {
+        return idGenerator != null;
+    }
+    
+    /**
+     * id 가 없는 entity 에 idGenerator 로 만든 id 를 넣는다.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void assignId(T entity) {
+        if(idGenerator == null || getId(entity) != null)
+            return;
+        
+        Class idType = ClassUtils.resolvePrimitiveIfNecessary(id.getType());
+        setId(entity, (ID) NumberUtils.convertNumberToTargetClass(Long.valueOf(idGenerator.nextId()), idType));
+    }
 
 }
@@ -1,33 +1,156 @@
 package kr.arawn.springframework.data.sqlmap.repository.query;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.Future;
 
+import kr.arawn.springframework.data.sqlmap.repository.RowCallback;
+import kr.arawn.springframework.data.sqlmap.repository.Slice;
+import kr.arawn.springframework.data.sqlmap.repository.statement.QueryCaching;
 import kr.arawn.springframework.data.sqlmap.repository.statement.Statement;
 
+import org.reactivestreams.Publisher;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.domain.Page;
 import org.springframework.data.repository.query.QueryMethod;
 import org.springframework.data.repository.support.RepositoryMetadata;
 
 public class DefaultSqlmapQueryMethod extends QueryMethod {
     
+    private final Method method;
+    private final boolean async;
+    private final Class<?> resultType;
     private final String statementId;
     private final boolean modifying;
+    private final String countStatementId;
+    private final int rowCallbackIndex;
+    private final long cacheTimeToLive;
     
     public DefaultSqlmapQueryMethod(Method method, RepositoryMetadata metadata, String statementId) {
         super(method, metadata);
         
+        this.method = method;
         this.statementId = statementId;
+        this.async = Future.class.isAssignableFrom(method.getReturnType());
+        this.resultType = async ? resolveFutureType(method) : method.getReturnType();
         
         Statement statement = AnnotationUtils.findAnnotation(method, Statement.class);
         if (statement != null)
             this.modifying = statement.modifying();
         else
             this.modifying = false;
+        
+        if (statement != null && statement.countId().length() > 0)
+            this.countStatementId = statement.countId();
+        else
+            this.countStatementId = statementId + "_count";
+        
+        int index = -1;
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (RowCallback.class.isAssignableFrom(parameterTypes[i]))
+                index = i;
+        }
+        this.rowCallbackIndex = index;
+        
+        QueryCaching queryCaching = AnnotationUtils.findAnnotation(method, QueryCaching.class);
+        if (queryCaching != null && isReadQuery())
+            this.cacheTimeToLive = queryCaching.timeToLive();
+        else
+            this.cacheTimeToLive = 0;
     }
 
     public String getStatementId() {
         return statementId;
     }
+    
+    public Method getMethod() {
+        return method;
+    }
+    
+    /**
+     * Page 를 반환하는 메소드의 전체 건수를 조회할 statement
+     */
+    public String getCountStatementId() {
+        return countStatementId;
+    }
+    
+    /**
+     * Future 를 반환하는 메소드인지 확인한다.
+     */
+    public boolean isAsyncQuery() {
+        return async;
+    }
+    
+    /**
+     * 메소드가 반환하는 결과의 타입, Future 를 반환하면 Future 의 타입 parameter
+     */
+    public Class<?> getResultType() {
+        return resultType;
+    }
+    
+    public boolean isCollectionResult() {
+        if (async)
+            return Collection.class.isAssignableFrom(resultType);
+        return getType() == QueryMethod.Type.COLLECTION;
+    }
+    
+    public boolean isPageQuery() {
+        return Page.class.isAssignableFrom(resultType);
+    }
+    
+    public boolean isSliceQuery() {
+        return Slice.class.isAssignableFrom(resultType);
+    }
+    
+    public boolean isIteratorQuery() {
+        return Iterator.class.isAssignableFrom(resultType);
+    }
+    
+    public boolean isPublisherQuery() {
+        return Publisher.class.isAssignableFrom(resultType);
+    }
+    
+    public boolean hasRowCallback() {
+        return rowCallbackIndex >= 0;
+    }
+    
+    /**
+     * 결과를 다른 호출과 나눠 가질 수 있는 조회 메소드인지 확인한다.
+     */
+    public boolean isReadQuery() {
+        return !modifying && rowCallbackIndex < 0 && !isIteratorQuery() && !isPublisherQuery();
+    }
+    
+    public boolean isCacheable() {
+        return cacheTimeToLive > 0;
+    }
+    
+    public long getCacheTimeToLive() {
+        return cacheTimeToLive;
+    }
+    
+    /**
+     * RowCallback parameter 의 위치, 없으면 -1
+     */
+    public int getRowCallbackIndex() {
+        return rowCallbackIndex;
+    }
+
+    private static Class<?> resolveFutureType(Method method) {
+        Type type = method.getGenericReturnType();
+        if (type instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (argument instanceof ParameterizedType)
+                argument = ((ParameterizedType) argument).getRawType();
+            if (argument instanceof Class)
+                return (Class<?>) argument;
+        }
+        return Object.class;
+    }
 
     @Override
     protected boolean isModifyingQuery() {
@@ -1,61 +1,315 @@
 package kr.arawn.springframework.data.sqlmap.repository.query;
 
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.RowCallbackRowHandler;
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.RowHandlerIterator;
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.RowHandlerPublisher;
+import kr.arawn.springframework.data.sqlmap.repository.Keyset;
+import kr.arawn.springframework.data.sqlmap.repository.RowCallback;
+import kr.arawn.springframework.data.sqlmap.repository.Slice;
+import kr.arawn.springframework.data.sqlmap.repository.support.InFlightQueryCoalescer;
+import kr.arawn.springframework.data.sqlmap.repository.support.QueryResultCache;
+import kr.arawn.springframework.data.sqlmap.repository.support.SqlmapRepositoryContext;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.QueryMethod;
 import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.orm.ibatis.SqlMapClientTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * 선언된 statement 를 실행하는 RepositoryQuery
+ *
+ * 메소드의 종류와 parameter 배치는 생성할 때 한번만 확인하고 그에 맞는 {@link QueryExecution} 과
+ * {@link ParameterBinder} 를 만들어 둔다.
+ */
 public class DefaultSqlmapRepositoryQuery implements RepositoryQuery {
-    
-    private SqlMapClientTemplate template;
-    private DefaultSqlmapQueryMethod queryMethod;
-    
+
+    private final SqlMapClientTemplate template;
+    private final DefaultSqlmapQueryMethod queryMethod;
+    private final SqlmapRepositoryContext context;
+
+    private final String statementId;
+    private final ParameterBinder binder;
+    private final boolean cacheable;
+    private final boolean readQuery;
+    private final boolean async;
+    private final QueryExecution execution;
+
     public DefaultSqlmapRepositoryQuery(SqlMapClientTemplate template, DefaultSqlmapQueryMethod queryMethod) {
+        this(template, queryMethod, new SqlmapRepositoryContext());
+    }
+
+    public DefaultSqlmapRepositoryQuery(SqlMapClientTemplate template, DefaultSqlmapQueryMethod queryMethod,
+            SqlmapRepositoryContext context) {
         this.template = template;
         this.queryMethod = queryMethod;
+        this.context = context;
+
+        this.statementId = queryMethod.getStatementId();
+        this.binder = ParameterBinder.create(queryMethod.getMethod());
+        this.cacheable = queryMethod.isCacheable();
+        this.readQuery = queryMethod.isReadQuery();
+        this.async = queryMethod.isAsyncQuery();
+        this.execution = compile();
     }
-    
-    public Object execute(Object[] parameters) {
-        
-        if(getQueryMethod().getType() == QueryMethod.Type.MODIFYING) {
-            if(isEmpty(parameters))
-                return template.update(queryMethod.getStatementId());
-            else if(isSingelParameters(parameters))
-                return template.update(queryMethod.getStatementId(), parameters[0]);
-            else
-                throw new IllegalArgumentException("parameter 가 너무 많습니다. [" + Arrays.toString(parameters) + "]");
-        }
-        else if(getQueryMethod().getType() == QueryMethod.Type.SINGLE_ENTITY) {
-            if(isEmpty(parameters))
-                return template.queryForObject(queryMethod.getStatementId());
-            else if(isSingelParameters(parameters))
-                return template.queryForObject(queryMethod.getStatementId(), parameters[0]);
-            else
-                throw new IllegalArgumentException("parameter 가 너무 많습니다. [" + Arrays.toString(parameters) + "]");
-        }
-        else if(getQueryMethod().getType() == QueryMethod.Type.COLLECTION) {
-            if(isEmpty(parameters))
-                return template.queryForList(queryMethod.getStatementId());
-            else if(isSingelParameters(parameters))
-                return template.queryForList(queryMethod.getStatementId(), parameters[0]);
-            else
-                throw new IllegalArgumentException("parameter 가 너무 많습니다. [" + Arrays.toString(parameters) + "]");
-        }
+
+    public Object execute(final Object[] parameters) {
+        context.flushPendingWrites();
         
-        return null;
+        final Object parameter = getParameter(parameters);
+        if(!async)
+            return execute(parameter, parameters);
+
+        return context.submit(new Callable<Object>() {
+            public Object call() throws Exception {
+                return execute(parameter, parameters);
+            }
+        });
+    }
+
+    /**
+     * 한 번 bind 한 parameter 로 실행한다.
+     * 
+     * @param parameter statement 에 넘길 parameter
+     * @param parameters query method 에 넘어온 인자
+     */
+    protected Object execute(Object parameter, Object[] parameters) {
+        QueryResultCache queryResultCache;
+        if(!cacheable || (queryResultCache = context.getQueryResultCache()) == null)
+            return coalesce(parameter, parameters);
+
+        Object result = queryResultCache.get(statementId, parameter);
+        if(result != null)
+            return context.snapshot(result);
+
+        long generation = queryResultCache.getGeneration();
+        result = coalesce(parameter, parameters);
+        if(context.isCachePopulatable())
+            result = queryResultCache.put(statementId, parameter, result, queryMethod.getCacheTimeToLive(), generation);
+
+        return result;
+    }
+
+    protected Object coalesce(final Object parameter, final Object[] parameters) {
+        InFlightQueryCoalescer coalescer;
+        if(!readQuery || (coalescer = context.getInFlightQueryCoalescer()) == null)
+            return context.snapshot(execution.execute(parameter, parameters));
+
+        return context.snapshot(coalescer.execute(statementId, parameter, new InFlightQueryCoalescer.Query() {
+            public Object execute() {
+                return execution.execute(parameter, parameters);
+            }
+        }));
+    }
+
+    /**
+     * statement 에 넘길 parameter, parameter 가 없으면 null
+     */
+    protected Object getParameter(Object[] parameters) {
+        return binder.bind(parameters);
+    }
+
+    private QueryExecution compile() {
+        if(queryMethod.getType() == QueryMethod.Type.MODIFYING)
+            return new ModifyingExecution();
+        else if(queryMethod.hasRowCallback())
+            return new RowCallbackExecution();
+        else if(queryMethod.isIteratorQuery())
+            return new IteratorExecution();
+        else if(queryMethod.isPublisherQuery())
+            return new PublisherExecution();
+        else if(queryMethod.isPageQuery())
+            return new PageExecution(findPageableIndex(queryMethod.getMethod()));
+        else if(queryMethod.isSliceQuery())
+            return new SliceExecution(findKeysetIndex(queryMethod.getMethod()));
+        else if(queryMethod.isCollectionResult())
+            return new CollectionExecution();
+
+        return new SingleEntityExecution();
     }
-    
-    protected boolean isEmpty(Object[] parameters) {
-        return parameters == null || parameters.length == 0 ? true : false; 
+
+    private static int findKeysetIndex(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for(int i = 0; i < parameterTypes.length; i++) {
+            if(Keyset.class.isAssignableFrom(parameterTypes[i]))
+                return i;
+        }
+        throw new IllegalArgumentException("Slice 를 반환하는 메소드는 Keyset parameter 가 필요합니다. [" + method + "]");
     }
-    
-    protected boolean isSingelParameters(Object[] parameters) {
-        return parameters != null && parameters.length == 1 ? true : false; 
+
+    private static int findPageableIndex(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for(int i = 0; i < parameterTypes.length; i++) {
+            if(Pageable.class.isAssignableFrom(parameterTypes[i]))
+                return i;
+        }
+        throw new IllegalArgumentException("Page 를 반환하는 메소드는 Pageable parameter 가 필요합니다. [" + method + "]");
     }
-    
+
     public QueryMethod getQueryMethod() {
         return queryMethod;
     }
 
+    /**
+     * 한가지 종류의 메소드만 실행하는 전략
+     */
+    private interface QueryExecution {
+
+        Object execute(Object parameter, Object[] parameters);
+
+    }
+
+    private final class ModifyingExecution implements QueryExecution {
+
+        public Object execute(Object parameter, Object[] parameters) {
+            int rows = template.update(statementId, parameter);
+            context.invalidateAll();
+            return rows;
+        }
+
+    }
+
+    private final class RowCallbackExecution implements QueryExecution {
+
+        private final int rowCallbackIndex = queryMethod.getRowCallbackIndex();
+
+        @SuppressWarnings("unchecked")
+        public Object execute(Object parameter, Object[] parameters) {
+            template.queryWithRowHandler(statementId, parameter,
+                    new RowCallbackRowHandler<Object>((RowCallback<Object>) parameters[rowCallbackIndex]));
+            return null;
+        }
+
+    }
+
+    private final class IteratorExecution implements QueryExecution {
+
+        public Object execute(Object parameter, Object[] parameters) {
+            TaskExecutor streamingExecutor = context.getStreamingExecutor();
+            if(streamingExecutor == null)
+                throw new IllegalStateException("streamingExecutor 가 설정되지 않았습니다.");
+
+            return new RowHandlerIterator<Object>(template, statementId, parameter).start(streamingExecutor);
+        }
+
+    }
+
+    private final class PublisherExecution implements QueryExecution {
+
+        public Object execute(Object parameter, Object[] parameters) {
+            TaskExecutor streamingExecutor = context.getStreamingExecutor();
+            if(streamingExecutor == null)
+                throw new IllegalStateException("streamingExecutor 가 설정되지 않았습니다.");
+
+            return new RowHandlerPublisher<Object>(template, statementId, parameter, streamingExecutor);
+        }
+
+    }
+
+    private final class SliceExecution implements QueryExecution {
+
+        private final int keysetIndex;
+
+        public SliceExecution(int keysetIndex) {
+            this.keysetIndex = keysetIndex;
+        }
+
+        public Object execute(Object parameter, Object[] parameters) {
+            Keyset keyset = (Keyset) parameters[keysetIndex];
+            return Slice.of(template.queryForList(statementId, parameter), keyset);
+        }
+
+    }
+
+    /**
+     * 내용과 전체 건수를 조회해서 Page 를 만든다.
+     * 내용이 page 크기보다 적으면 전체 건수를 계산할 수 있으므로 count statement 를 실행하지 않는다.
+     * 트랜잭션 밖에서 parallelQueryExecutor 가 있으면 count statement 를 다른 커넥션에서 동시에 실행한다.
+     */
+    private final class PageExecution implements QueryExecution {
+
+        private final int pageableIndex;
+        private final String countStatementId = queryMethod.getCountStatementId();
+
+        public PageExecution(int pageableIndex) {
+            this.pageableIndex = pageableIndex;
+        }
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        public Object execute(final Object parameter, Object[] parameters) {
+            Pageable pageable = (Pageable) parameters[pageableIndex];
+
+            Future<Object> countFuture = null;
+            AsyncTaskExecutor parallelQueryExecutor = context.getParallelQueryExecutor();
+            if(pageable != null && parallelQueryExecutor != null 
+                    && !TransactionSynchronizationManager.isActualTransactionActive()) {
+                countFuture = parallelQueryExecutor.submit(new Callable<Object>() {
+                    public Object call() throws Exception {
+                        return template.queryForObject(countStatementId, parameter);
+                    }
+                });
+            }
+
+            try {
+                List content = template.queryForList(statementId, parameter);
+                if(pageable == null)
+                    return new PageImpl(content);
+
+                long total;
+                if(!content.isEmpty() && content.size() < pageable.getPageSize())
+                    total = pageable.getOffset() + content.size();
+                else if(content.isEmpty() && pageable.getOffset() == 0)
+                    total = 0;
+                else if(countFuture != null)
+                    total = ((Number) getCount(countFuture)).longValue();
+                else
+                    total = ((Number) template.queryForObject(countStatementId, parameter)).longValue();
+
+                return new PageImpl(content, pageable, total);
+            } finally {
+                if(countFuture != null)
+                    countFuture.cancel(true);
+            }
+        }
+
+        private Object getCount(Future<Object> countFuture) {
+            try {
+                return countFuture.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(countStatementId + " 를 기다리는 중에 interrupt 되었습니다.", e);
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new IllegalStateException(countStatementId + " 실행에 실패했습니다.", e.getCause());
+            }
+        }
+
+    }
+
+    private final class SingleEntityExecution implements QueryExecution {
+
+        public Object execute(Object parameter, Object[] parameters) {
+            return template.queryForObject(statementId, parameter);
+        }
+
+    }
+
+    private final class CollectionExecution implements QueryExecution {
+
+        public Object execute(Object parameter, Object[] parameters) {
+            return template.queryForList(statementId, parameter);
+        }
+
+    }
+
 }
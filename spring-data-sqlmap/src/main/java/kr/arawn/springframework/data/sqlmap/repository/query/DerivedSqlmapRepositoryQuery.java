@@ -0,0 +1,105 @@
+package kr.arawn.springframework.data.sqlmap.repository.query;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.InterceptingSqlMapClientTemplate;
+import kr.arawn.springframework.data.sqlmap.repository.support.SqlmapRepositoryContext;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementExecution;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementInterceptor;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementOperation;
+
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.orm.ibatis.SqlMapClientTemplate;
+
+/**
+ * 메소드 이름으로 만든 {@link DerivedStatement} 를 실행하는 RepositoryQuery
+ *
+ * sqlmap 에 선언된 statement 가 아니므로 SQL 은 JdbcTemplate 으로 실행된다. 다른 query 와 같이 template 의
+ * {@link StatementInterceptor} 를 거치며 statement id 는 메소드의 statement id(namespace.메소드 이름)로 기록되고,
+ * 조회한 entity 는 context 의 snapshot 에 남는다. 실행하기 전에 트랜잭션에 모아둔 쓰기를 먼저 실행한다.
+ *
+ * 테이블과 컬럼 이름은 class, property 이름을 대문자로 바꾼 것이고 결과는 BeanPropertyRowMapper 로 만들어지므로
+ * sqlmap 의 resultMap 과 다른 이름을 사용하는 entity 는 @Statement 로 선언한 query 를 사용해야 한다.
+ */
+public class DerivedSqlmapRepositoryQuery implements RepositoryQuery {
+
+    private static final StatementInterceptor[] NO_INTERCEPTORS = new StatementInterceptor[0];
+
+    private final SqlMapClientTemplate template;
+    private final JdbcTemplate jdbcTemplate;
+    private final DefaultSqlmapQueryMethod queryMethod;
+    private final DerivedStatement statement;
+    private final SqlmapRepositoryContext context;
+    private final RowMapper<?> rowMapper;
+    private final boolean intResult;
+
+    public DerivedSqlmapRepositoryQuery(SqlMapClientTemplate template, JdbcTemplate jdbcTemplate, 
+            DefaultSqlmapQueryMethod queryMethod, DerivedStatement statement, Class<?> domainClass, 
+            SqlmapRepositoryContext context) {
+        this.template = template;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queryMethod = queryMethod;
+        this.statement = statement;
+        this.context = context;
+        this.rowMapper = createRowMapper(domainClass);
+
+        Method method = queryMethod.getMethod();
+        if(method.getParameterTypes().length != statement.getParameterCount())
+            throw new IllegalArgumentException(String.format("%s 의 parameter 는 %d 개여야 합니다. [%s]",
+                    method.getName(), statement.getParameterCount(), statement.getSql()));
+
+        Class<?> returnType = method.getReturnType();
+        this.intResult = returnType == int.class || returnType == Integer.class;
+    }
+
+    public Object execute(Object[] parameters) {
+        context.flushPendingWrites();
+        
+        StatementInterceptor[] interceptors = template instanceof InterceptingSqlMapClientTemplate
+                ? ((InterceptingSqlMapClientTemplate) template).getInterceptors() : NO_INTERCEPTORS;
+        if(interceptors.length == 0)
+            return context.snapshot(query(parameters));
+
+        return context.snapshot(new StatementExecution(interceptors, StatementOperation.SELECT, 
+                queryMethod.getStatementId(), Arrays.asList(parameters)) {
+            @Override
+            protected Object invoke(Object parameter) {
+                return query(((List<?>) parameter).toArray());
+            }
+        }.proceed());
+    }
+
+    private Object query(Object[] parameters) {
+        if(statement.isCountQuery()) {
+            long count = jdbcTemplate.queryForLong(statement.getSql(), parameters);
+            return intResult ? Integer.valueOf((int) count) : Long.valueOf(count);
+        }
+
+        List<?> rows = jdbcTemplate.query(statement.getSql(), parameters, rowMapper);
+        if(queryMethod.getType() == QueryMethod.Type.COLLECTION)
+            return rows;
+
+        return DataAccessUtils.singleResult(rows);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static RowMapper<?> createRowMapper(Class<?> domainClass) {
+        return new BeanPropertyRowMapper(domainClass);
+    }
+
+    public QueryMethod getQueryMethod() {
+        return queryMethod;
+    }
+
+    public DerivedStatement getStatement() {
+        return statement;
+    }
+
+}
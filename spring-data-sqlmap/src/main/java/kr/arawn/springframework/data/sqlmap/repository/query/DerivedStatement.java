@@ -0,0 +1,176 @@
+package kr.arawn.springframework.data.sqlmap.repository.query;
+
+import java.beans.Introspector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * findByNameAndNickName 과 같은 메소드 이름으로 만든 SQL
+ *
+ * 테이블 이름은 entity 클래스 이름, 컬럼 이름은 entity 의 property 이름을 대문자로 바꿔 사용한다.
+ * OrderBy 의 property 에는 Asc 나 Desc 를 붙여야 한다.
+ * SQL 은 repository 를 만들 때 한번만 만들어지고 parameter 는 메소드 인자 순서대로 바인딩된다.
+ *
+ * <pre>
+ * findByNameAndNickName(String name, String nickName)
+ *   SELECT * FROM SPRINGSPROUT WHERE NAME = ? AND NICKNAME = ?
+ * countByNameLike(String name)
+ *   SELECT COUNT(*) FROM SPRINGSPROUT WHERE NAME LIKE ?
+ * findByNickNameIsNotNullOrderByNameDesc()
+ *   SELECT * FROM SPRINGSPROUT WHERE NICKNAME IS NOT NULL ORDER BY NAME DESC
+ * </pre>
+ */
+public class DerivedStatement {
+
+    private static final Pattern PREFIX = Pattern.compile("^(find|read|get|query|count)\\p{Alnum}*?By(\\p{Lu}.*)$");
+    private static final Pattern ORDER = Pattern.compile("(\\p{Lu}\\p{Alnum}*?)(Asc|Desc)(?=\\p{Lu}|$)");
+    private static final String ORDER_BY = "OrderBy";
+
+    /**
+     * 메소드 이름 끝에 붙는 조건, 긴 것부터 비교한다.
+     */
+    private static enum Operator {
+
+        GreaterThanEqual(" >= ?", 1),
+        LessThanEqual(" <= ?", 1),
+        GreaterThan(" > ?", 1),
+        LessThan(" < ?", 1),
+        IsNotNull(" IS NOT NULL", 0),
+        IsNull(" IS NULL", 0),
+        NotLike(" NOT LIKE ?", 1),
+        Like(" LIKE ?", 1),
+        Not(" <> ?", 1),
+        Equals(" = ?", 1),
+        Is(" = ?", 1);
+
+        private final String expression;
+        private final int arguments;
+
+        private Operator(String expression, int arguments) {
+            this.expression = expression;
+            this.arguments = arguments;
+        }
+
+    }
+
+    private final String sql;
+    private final int parameterCount;
+    private final boolean countQuery;
+
+    private DerivedStatement(String sql, int parameterCount, boolean countQuery) {
+        this.sql = sql;
+        this.parameterCount = parameterCount;
+        this.countQuery = countQuery;
+    }
+
+    /**
+     * 메소드 이름을 SQL 로 바꿀 수 있는지 확인한다.
+     */
+    public static boolean isDerivable(String methodName) {
+        return PREFIX.matcher(methodName).matches();
+    }
+
+    public static DerivedStatement create(String methodName, Class<?> domainClass) {
+        Matcher matcher = PREFIX.matcher(methodName);
+        if(!matcher.matches())
+            throw new IllegalArgumentException(methodName + " 은 SQL 로 바꿀 수 없는 메소드 이름입니다.");
+
+        boolean countQuery = "count".equals(matcher.group(1));
+        String criteria = matcher.group(2);
+        String orders = null;
+
+        int orderBy = criteria.lastIndexOf(ORDER_BY);
+        if(orderBy >= 0) {
+            orders = criteria.substring(orderBy + ORDER_BY.length());
+            criteria = criteria.substring(0, orderBy);
+        }
+
+        StringBuilder sql = new StringBuilder(countQuery ? "SELECT COUNT(*) FROM " : "SELECT * FROM ");
+        sql.append(ClassUtils.getShortName(domainClass).toUpperCase());
+
+        int parameterCount = 0;
+        if(StringUtils.hasLength(criteria)) {
+            sql.append(" WHERE ");
+
+            String[] orParts = criteria.split("Or(?=\\p{Lu})");
+            for(int i = 0; i < orParts.length; i++) {
+                if(i > 0)
+                    sql.append(" OR ");
+
+                String[] andParts = orParts[i].split("And(?=\\p{Lu})");
+                for(int j = 0; j < andParts.length; j++) {
+                    if(j > 0)
+                        sql.append(" AND ");
+
+                    parameterCount += appendCondition(sql, andParts[j], methodName, domainClass);
+                }
+            }
+        }
+
+        if(StringUtils.hasLength(orders)) {
+            if(countQuery)
+                throw new IllegalArgumentException(methodName + " : count 메소드에는 OrderBy 를 사용할 수 없습니다.");
+
+            List<String> orderList = new ArrayList<String>();
+            Matcher orderMatcher = ORDER.matcher(orders);
+            int end = 0;
+            while(orderMatcher.find() && orderMatcher.start() == end) {
+                String column = getColumnName(orderMatcher.group(1), methodName, domainClass);
+                orderList.add(column + " " + orderMatcher.group(2).toUpperCase());
+                end = orderMatcher.end();
+            }
+            if(end != orders.length())
+                throw new IllegalArgumentException(methodName + " : OrderBy 조건을 해석할 수 없습니다. property 마다 Asc 나 Desc 를 붙여야 합니다. [" + orders + "]");
+
+            sql.append(" ORDER BY ").append(StringUtils.collectionToDelimitedString(orderList, ", "));
+        }
+
+        return new DerivedStatement(sql.toString(), parameterCount, countQuery);
+    }
+
+    private static int appendCondition(StringBuilder sql, String part, String methodName, Class<?> domainClass) {
+        for(Operator operator : Operator.values()) {
+            String name = operator.name();
+            if(part.endsWith(name) && part.length() > name.length()) {
+                sql.append(getColumnName(part.substring(0, part.length() - name.length()), methodName, domainClass));
+                sql.append(operator.expression);
+                return operator.arguments;
+            }
+        }
+
+        sql.append(getColumnName(part, methodName, domainClass)).append(Operator.Equals.expression);
+        return Operator.Equals.arguments;
+    }
+
+    private static String getColumnName(String part, String methodName, Class<?> domainClass) {
+        String property = Introspector.decapitalize(part);
+        if(ReflectionUtils.findField(domainClass, property) == null)
+            throw new IllegalArgumentException(methodName + " : " + domainClass.getName() + " 에 " + property + " property 가 없습니다.");
+
+        return property.toUpperCase();
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    public boolean isCountQuery() {
+        return countQuery;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+}
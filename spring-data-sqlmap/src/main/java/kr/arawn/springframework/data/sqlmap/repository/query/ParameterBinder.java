@@ -0,0 +1,214 @@
+package kr.arawn.springframework.data.sqlmap.repository.query;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import kr.arawn.springframework.data.sqlmap.repository.RowCallback;
+import kr.arawn.springframework.data.sqlmap.repository.statement.Param;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * 메소드 인자를 statement 의 parameter 로 바꾼다.
+ *
+ * 인자가 하나면 그대로 넘기고, 여러개면 {@link Param} 이름을 키로 하는 Map 으로 넘긴다.
+ * Pageable 은 offset, pageSize, pageNumber, orders 로, Sort 는 orders 로 Map 에 들어간다.
+ * Pageable, Sort 와 함께 @Param 없는 인자 하나만 넘어오면 value 키로 넣고, bean 이나 Map 이면 property 도 같이 넣는다.
+ * RowCallback 인자는 제외된다. 키의 배치는 생성할 때 한번만 계산한다.
+ */
+public abstract class ParameterBinder {
+
+    public static final String OFFSET = "offset";
+    public static final String PAGE_SIZE = "pageSize";
+    public static final String PAGE_NUMBER = "pageNumber";
+    public static final String ORDERS = "orders";
+    public static final String VALUE = "value";
+
+    private static final ParameterBinder NONE = new ParameterBinder() {
+        @Override
+        public Object bind(Object[] parameters) {
+            return null;
+        }
+    };
+
+    public abstract Object bind(Object[] parameters);
+
+    public static ParameterBinder create(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+
+        List<String> names = new ArrayList<String>();
+        List<Integer> indexes = new ArrayList<Integer>();
+        int pageableIndex = -1;
+        int sortIndex = -1;
+        boolean named = false;
+
+        for(int i = 0; i < parameterTypes.length; i++) {
+            if(RowCallback.class.isAssignableFrom(parameterTypes[i]))
+                continue;
+
+            if(Pageable.class.isAssignableFrom(parameterTypes[i])) {
+                pageableIndex = i;
+                continue;
+            }
+
+            if(Sort.class.isAssignableFrom(parameterTypes[i])) {
+                sortIndex = i;
+                continue;
+            }
+
+            Param param = findParam(parameterAnnotations[i]);
+            named |= param != null;
+            names.add(param != null ? param.value() : null);
+            indexes.add(i);
+        }
+
+        if(!named && indexes.size() <= 1) {
+            if(pageableIndex < 0 && sortIndex < 0)
+                return indexes.isEmpty() ? NONE : new SingleParameterBinder(indexes.get(0));
+
+            if(indexes.size() == 1) {
+                boolean spread = !BeanUtils.isSimpleProperty(parameterTypes[indexes.get(0)]);
+                return new MapParameterBinder(new String[] { VALUE }, toArray(indexes), pageableIndex, sortIndex, spread);
+            }
+        }
+
+        Set<String> keys = new HashSet<String>();
+        for(String name : names) {
+            if(name == null)
+                throw new IllegalArgumentException("parameter 가 여러개인 메소드는 모든 parameter 에 @Param 이 필요합니다. [" + method + "]");
+            if(!keys.add(name))
+                throw new IllegalArgumentException("@Param 이름 " + name + " 이 중복되었습니다. [" + method + "]");
+        }
+
+        return new MapParameterBinder(names.toArray(new String[names.size()]), toArray(indexes), pageableIndex, sortIndex, false);
+    }
+
+    private static Param findParam(Annotation[] annotations) {
+        for(Annotation annotation : annotations) {
+            if(annotation instanceof Param)
+                return (Param) annotation;
+        }
+        return null;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for(int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    static ArrayList<Sort.Order> toOrders(Sort sort) {
+        ArrayList<Sort.Order> orders = new ArrayList<Sort.Order>();
+        if(sort == null)
+            return orders;
+
+        Iterator<Sort.Order> iterator = sort.iterator();
+        while(iterator.hasNext()) {
+            orders.add(iterator.next());
+        }
+        return orders;
+    }
+
+    private static final class SingleParameterBinder extends ParameterBinder {
+
+        private final int index;
+
+        public SingleParameterBinder(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Object bind(Object[] parameters) {
+            return parameters[index];
+        }
+
+    }
+
+    private static final class MapParameterBinder extends ParameterBinder {
+
+        private final String[] names;
+        private final int[] indexes;
+        private final int pageableIndex;
+        private final int sortIndex;
+        private final boolean spread;
+        private final int capacity;
+
+        public MapParameterBinder(String[] names, int[] indexes, int pageableIndex, int sortIndex, boolean spread) {
+            this.names = names;
+            this.indexes = indexes;
+            this.pageableIndex = pageableIndex;
+            this.sortIndex = sortIndex;
+            this.spread = spread;
+
+            int size = names.length;
+            if(pageableIndex >= 0)
+                size += 4;
+            else if(sortIndex >= 0)
+                size += 1;
+            this.capacity = (int) (size / 0.75f) + 1;
+        }
+
+        @Override
+        public Object bind(Object[] parameters) {
+            Map<String, Object> map = new HashMap<String, Object>(capacity);
+            if(spread)
+                putProperties(map, parameters[indexes[0]]);
+
+            for(int i = 0; i < names.length; i++) {
+                map.put(names[i], parameters[indexes[i]]);
+            }
+
+            if(pageableIndex >= 0) {
+                Pageable pageable = (Pageable) parameters[pageableIndex];
+                if(pageable != null) {
+                    map.put(OFFSET, pageable.getOffset());
+                    map.put(PAGE_SIZE, pageable.getPageSize());
+                    map.put(PAGE_NUMBER, pageable.getPageNumber());
+                    map.put(ORDERS, toOrders(pageable.getSort()));
+                }
+            }
+
+            if(sortIndex >= 0)
+                map.put(ORDERS, toOrders((Sort) parameters[sortIndex]));
+
+            return map;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void putProperties(Map<String, Object> map, Object parameter) {
+            if(parameter == null)
+                return;
+
+            if(parameter instanceof Map) {
+                for(Map.Entry<Object, Object> entry : ((Map<Object, Object>) parameter).entrySet()) {
+                    map.put(String.valueOf(entry.getKey()), entry.getValue());
+                }
+                return;
+            }
+
+            BeanWrapper wrapper = new BeanWrapperImpl(parameter);
+            for(PropertyDescriptor descriptor : wrapper.getPropertyDescriptors()) {
+                String name = descriptor.getName();
+                if(!"class".equals(name) && wrapper.isReadableProperty(name))
+                    map.put(name, wrapper.getPropertyValue(name));
+            }
+        }
+
+    }
+
+}
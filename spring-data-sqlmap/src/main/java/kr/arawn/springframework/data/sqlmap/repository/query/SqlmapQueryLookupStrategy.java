@@ -2,11 +2,19 @@ package kr.arawn.springframework.data.sqlmap.repository.query;
 
 import java.lang.reflect.Method;
 
+import javax.sql.DataSource;
+
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.SqlMapClientUtils;
+import kr.arawn.springframework.data.sqlmap.repository.statement.Statement;
 import kr.arawn.springframework.data.sqlmap.repository.statement.StatementInformation;
+import kr.arawn.springframework.data.sqlmap.repository.support.SqlmapRepositoryContext;
 
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.data.repository.query.QueryLookupStrategy;
 import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.data.repository.support.RepositoryMetadata;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
 import org.springframework.orm.ibatis.SqlMapClientTemplate;
 import org.springframework.util.Assert;
 
@@ -19,13 +27,16 @@ public final class SqlmapQueryLookupStrategy {
 
         private SqlMapClientTemplate template;
         private StatementInformation statement;
+        private SqlmapRepositoryContext context;
 
-        public AbstractQueryLookupStrategy(SqlMapClientTemplate template, StatementInformation statement) {
+        public AbstractQueryLookupStrategy(SqlMapClientTemplate template, StatementInformation statement,
+                SqlmapRepositoryContext context) {
             Assert.notNull(template);
             Assert.notNull(statement);
             
             this.template = template;
             this.statement = statement;
+            this.context = context;
         }
 
         protected SqlMapClientTemplate getTemplate() {
@@ -35,30 +46,48 @@ public final class SqlmapQueryLookupStrategy {
         protected StatementInformation getStatement() {
             return statement;
         }
+        
+        protected SqlmapRepositoryContext getContext() {
+            return context;
+        }
 
     }
     
     private static class CreateQueryLookupStrategy extends AbstractQueryLookupStrategy {
 
-        public CreateQueryLookupStrategy(SqlMapClientTemplate template, StatementInformation statement) {
-            super(template, statement);
+        private JdbcTemplate jdbcTemplate;
+        
+        public CreateQueryLookupStrategy(SqlMapClientTemplate template, StatementInformation statement,
+                SqlmapRepositoryContext context) {
+            super(template, statement, context);
+            
+            DataSource dataSource = template.getDataSource();
+            if (dataSource instanceof TransactionAwareDataSourceProxy)
+                dataSource = ((TransactionAwareDataSourceProxy) dataSource).getTargetDataSource();
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
         }
 
         public RepositoryQuery resolveQuery(Method method, RepositoryMetadata metadata) {
-            throw new UnsupportedOperationException();
+            DerivedStatement derived = DerivedStatement.create(method.getName(), metadata.getDomainClass());
+            
+            return new DerivedSqlmapRepositoryQuery(getTemplate(), jdbcTemplate, 
+                    new DefaultSqlmapQueryMethod(method, metadata, getStatement().getStatementId(method.getName())),
+                    derived, metadata.getDomainClass(), getContext());
         }        
 
     }
     
     private static class DeclaredQueryLookupStrategy extends AbstractQueryLookupStrategy {
 
-        public DeclaredQueryLookupStrategy(SqlMapClientTemplate template, StatementInformation statement) {
-            super(template, statement);
+        public DeclaredQueryLookupStrategy(SqlMapClientTemplate template, StatementInformation statement,
+                SqlmapRepositoryContext context) {
+            super(template, statement, context);
         }
 
         public RepositoryQuery resolveQuery(Method method, RepositoryMetadata metadata) {
             return new DefaultSqlmapRepositoryQuery(getTemplate(), 
-                    new DefaultSqlmapQueryMethod(method, metadata, getStatement().getStatementId(method.getName())));
+                    new DefaultSqlmapQueryMethod(method, metadata, getStatement().getStatementId(method.getName())),
+                    getContext());
         }
 
     }    
@@ -66,32 +95,52 @@ public final class SqlmapQueryLookupStrategy {
     private static class CreateIfNotFoundQueryLookupStrategy extends AbstractQueryLookupStrategy {
 
         private DeclaredQueryLookupStrategy declared;
+        private CreateQueryLookupStrategy create;
         
-        public CreateIfNotFoundQueryLookupStrategy(SqlMapClientTemplate template, StatementInformation statement) {
-            super(template, statement);
-            this.declared = new DeclaredQueryLookupStrategy(template, statement); 
+        public CreateIfNotFoundQueryLookupStrategy(SqlMapClientTemplate template, StatementInformation statement,
+                SqlmapRepositoryContext context) {
+            super(template, statement, context);
+            this.declared = new DeclaredQueryLookupStrategy(template, statement, context); 
         }
 
         public RepositoryQuery resolveQuery(Method method, RepositoryMetadata metadata) {
-            return declared.resolveQuery(method, metadata);
-        }        
+            if (isDeclared(method) || !DerivedStatement.isDerivable(method.getName()))
+                return declared.resolveQuery(method, metadata);
+            
+            if (create == null)
+                create = new CreateQueryLookupStrategy(getTemplate(), getStatement(), getContext());
+            return create.resolveQuery(method, metadata);
+        }
+        
+        private boolean isDeclared(Method method) {
+            if (AnnotationUtils.findAnnotation(method, Statement.class) != null)
+                return true;
+            
+            return SqlMapClientUtils.isMappedStatement(getTemplate().getSqlMapClient(), 
+                    getStatement().getStatementId(method.getName()));
+        }
 
     }
     
     public static QueryLookupStrategy create(QueryLookupStrategy.Key key, SqlMapClientTemplate template, 
             StatementInformation statement) {
+        return create(key, template, statement, new SqlmapRepositoryContext());
+    }
+    
+    public static QueryLookupStrategy create(QueryLookupStrategy.Key key, SqlMapClientTemplate template, 
+            StatementInformation statement, SqlmapRepositoryContext context) {
         
         if (key == null) {
-            return new DeclaredQueryLookupStrategy(template, statement);
+            return new DeclaredQueryLookupStrategy(template, statement, context);
         }
         
         switch (key) {
         case CREATE:
-            return new CreateQueryLookupStrategy(template, statement);            
+            return new CreateQueryLookupStrategy(template, statement, context);            
         case USE_DECLARED_QUERY:
-            return new DeclaredQueryLookupStrategy(template, statement);            
+            return new DeclaredQueryLookupStrategy(template, statement, context);            
         case CREATE_IF_NOT_FOUND:
-            return new CreateIfNotFoundQueryLookupStrategy(template, statement);            
+            return new CreateIfNotFoundQueryLookupStrategy(template, statement, context);            
         default:
             throw new IllegalArgumentException(String.format("Unsupported query lookup strategy %s!", key));
         }
@@ -0,0 +1,19 @@
+package kr.arawn.springframework.data.sqlmap.repository.statement;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * parameter 가 여러개인 메소드에서 statement 의 parameter map 에 사용할 이름
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+@Documented
+public @interface Param {
+
+    String value();
+    
+}
@@ -0,0 +1,25 @@
+package kr.arawn.springframework.data.sqlmap.repository.statement;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 사용자 정의 조회 메소드의 결과를 statement id 와 parameter 별로 캐시한다.
+ * parameter 는 equals, hashCode 가 구현되어 있어야 같은 조건으로 인식된다.
+ * Repository 를 통한 저장, 삭제나 변경(modifying) statement 가 실행되면 캐시가 비워진다.
+ * 캐시된 결과의 entity 는 호출할 때마다 새 복사본으로 반환된다.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface QueryCaching {
+
+    /**
+     * 캐시 유지 시간(ms)
+     */
+    long timeToLive() default 60000;
+    
+}
@@ -15,4 +15,9 @@ public @interface Statement {
     
     boolean modifying() default false;
     
+    /**
+     * Page 를 반환하는 메소드의 전체 건수를 조회할 statement, 없으면 id 뒤에 _count 를 붙여 사용한다.
+     */
+    String countId() default "";
+    
 }
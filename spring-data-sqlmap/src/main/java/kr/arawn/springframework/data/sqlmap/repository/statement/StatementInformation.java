@@ -14,7 +14,31 @@ public class StatementInformation {
         findAll,
         findAll_Sort,
         findAll_Pageable,
-        count
+        findAll_Keyset,
+        count,
+        deleteByIds(true),
+        exists(true),
+        existsAll(true),
+        findAllByIds(true),
+        nextId(true),
+        update_dirty(true);
+        
+        private final boolean optional;
+        
+        private StatementIdType() {
+            this(false);
+        }
+        
+        private StatementIdType(boolean optional) {
+            this.optional = optional;
+        }
+        
+        /**
+         * SqlMap 에 선언되어 있을 때만 사용되는 statement 인지 여부
+         */
+        public boolean isOptional() {
+            return optional;
+        }
 
     }
     
@@ -56,10 +80,42 @@ public class StatementInformation {
         return getStatementId(StatementIdType.findAll_Pageable.name());
     }
     
+    public String findAll_Keyset() {
+        return getStatementId(StatementIdType.findAll_Keyset.name());
+    }
+    
     public String count() {
         return getStatementId(StatementIdType.count.name());
     }
     
+    public String deleteByIds() {
+        return getStatementId(StatementIdType.deleteByIds.name());
+    }
+    
+    public String exists() {
+        return getStatementId(StatementIdType.exists.name());
+    }
+    
+    public String existsAll() {
+        return getStatementId(StatementIdType.existsAll.name());
+    }
+    
+    public String findAllByIds() {
+        return getStatementId(StatementIdType.findAllByIds.name());
+    }
+    
+    public String nextId() {
+        return getStatementId(StatementIdType.nextId.name());
+    }
+    
+    public String update_dirty() {
+        return getStatementId(StatementIdType.update_dirty.name());
+    }
+    
+    public boolean hasStatement(StatementIdType type) {
+        return statementMap.containsKey(type.name());
+    }
+    
     public String getStatementId(String methodName) {
         if(!statementMap.containsKey(methodName))
             throw new IllegalArgumentException(methodName + " 으로 정의된 statement-id 가 없습니다.");
@@ -0,0 +1,15 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+/**
+ * count statement 의 결과를 보관하는 캐시
+ * Repository 를 통한 저장, 삭제가 일어나면 clear() 가 호출된다.
+ */
+public interface CountCache {
+
+    Long get(String statementId);
+    
+    void put(String statementId, Long count);
+    
+    void clear();
+    
+}
@@ -0,0 +1,82 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.lang.reflect.Method;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.repository.support.RepositoryProxyPostProcessor;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 현재 쓰레드에서 실행 중인 Repository 메소드
+ *
+ * {@link #POST_PROCESSOR} 를 등록한 Repository 를 호출하는 동안에만 값이 있다.
+ * 다른 쓰레드(asyncExecutor, streamingExecutor)에서 실행되는 statement 에는 전달되지 않는다.
+ */
+public final class CurrentRepositoryMethod {
+    
+    private static final ThreadLocal<CurrentRepositoryMethod> current = new ThreadLocal<CurrentRepositoryMethod>();
+    
+    /**
+     * Repository proxy 에 현재 메소드를 노출하는 interceptor 를 추가한다.
+     */
+    public static final RepositoryProxyPostProcessor POST_PROCESSOR = new RepositoryProxyPostProcessor() {
+        public void postProcess(ProxyFactory factory) {
+            Class<?>[] interfaces = factory.getProxiedInterfaces();
+            factory.addAdvice(new ExposingInterceptor(interfaces.length > 0 ? interfaces[0] : null));
+        }
+    };
+    
+    private final Class<?> repositoryInterface;
+    private final Method method;
+    
+    private CurrentRepositoryMethod(Class<?> repositoryInterface, Method method) {
+        this.repositoryInterface = repositoryInterface != null ? repositoryInterface : method.getDeclaringClass();
+        this.method = method;
+    }
+    
+    /**
+     * 실행 중인 Repository 메소드, 없으면 null
+     */
+    public static CurrentRepositoryMethod get() {
+        return current.get();
+    }
+    
+    public Class<?> getRepositoryInterface() {
+        return repositoryInterface;
+    }
+    
+    public Method getMethod() {
+        return method;
+    }
+    
+    @Override
+    public String toString() {
+        return ClassUtils.getShortName(repositoryInterface) + "." + method.getName();
+    }
+    
+    private static class ExposingInterceptor implements MethodInterceptor {
+        
+        private final Class<?> repositoryInterface;
+        
+        public ExposingInterceptor(Class<?> repositoryInterface) {
+            this.repositoryInterface = repositoryInterface;
+        }
+        
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            CurrentRepositoryMethod previous = current.get();
+            current.set(new CurrentRepositoryMethod(repositoryInterface, invocation.getMethod()));
+            try {
+                return invocation.proceed();
+            } finally {
+                if(previous == null)
+                    current.remove();
+                else
+                    current.set(previous);
+            }
+        }
+        
+    }
+
+}
@@ -0,0 +1,214 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.CollectionFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.ReflectionUtils.FieldCallback;
+import org.springframework.util.ReflectionUtils.FieldFilter;
+
+/**
+ * 크기와 유지 시간이 제한된 LRU entity 캐시
+ * 
+ * 호출한 쪽의 변경이 다른 호출에 보이지 않도록 put 할 때 복사본을 저장하고 get 할 때마다 새 복사본을 반환한다.
+ * 복사는 기본 생성자로 만든 객체에 필드를 옮기며 Collection, Map 필드는 새로 만든다. 그 안의 객체는 공유된다.
+ * 기본 생성자가 없는 entity 는 캐시하지 않는다.
+ * 
+ * 조회 도중에 무효화된 값이 다시 저장되지 않도록 조회 전에 getGeneration() 을 받아두고
+ * put 할 때 넘겨야 한다. 그 사이에 evict, clear 가 있었다면 저장하지 않는다.
+ */
+public class EntityCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EntityCache.class);
+    
+    private final int maxSize;
+    private final long timeToLive;
+    private final Map<Object, Entry> entries;
+    
+    private long generation = 0;
+    
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    
+    public EntityCache(int maxSize, long timeToLive) {
+        Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+        
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 3985012830437162520L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if(size() > EntityCache.this.maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    public Object get(Object id) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(id);
+            if(entry != null && entry.isExpired()) {
+                entries.remove(id);
+                evictionCount.incrementAndGet();
+                entry = null;
+            }
+        }
+        
+        if(entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        
+        hitCount.incrementAndGet();
+        return copy(entry.entity);
+    }
+    
+    public long getGeneration() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+    
+    public void put(Object id, Object entity, long generation) {
+        if(id == null || entity == null)
+            return;
+        
+        Object copy = copy(entity);
+        if(copy == null)
+            return;
+        
+        long expiresAt = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : Long.MAX_VALUE;
+        synchronized (entries) {
+            if(this.generation == generation)
+                entries.put(id, new Entry(copy, expiresAt));
+        }
+    }
+    
+    public void evict(Object id) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(id);
+        }
+    }
+    
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+    
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    public int getMaxSize() {
+        return maxSize;
+    }
+    
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+    
+    public long getHitCount() {
+        return hitCount.get();
+    }
+    
+    public long getMissCount() {
+        return missCount.get();
+    }
+    
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+    
+    /**
+     * entity 의 복사본, 복사할 수 없으면 null
+     */
+    static Object copy(Object entity) {
+        if(BeanUtils.isSimpleValueType(entity.getClass()))
+            return entity;
+        
+        final Object copy;
+        try {
+            copy = BeanUtils.instantiateClass(entity.getClass());
+        } catch (BeanInstantiationException e) {
+            logger.debug("{} 를 복사할 수 없어 캐시하지 않습니다. : {}", entity.getClass().getName(), e.getMessage());
+            return null;
+        }
+        
+        ReflectionUtils.shallowCopyFieldState(entity, copy);
+        ReflectionUtils.doWithFields(copy.getClass(), new FieldCallback() {
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            public void doWith(Field field) {
+                ReflectionUtils.makeAccessible(field);
+                Object value = ReflectionUtils.getField(field, copy);
+                
+                Object copied;
+                if(value instanceof Collection) {
+                    Collection collection = CollectionFactory.createApproximateCollection(value, ((Collection) value).size());
+                    collection.addAll((Collection) value);
+                    copied = collection;
+                }
+                else if(value instanceof Map) {
+                    Map map = CollectionFactory.createApproximateMap(value, ((Map) value).size());
+                    map.putAll((Map) value);
+                    copied = map;
+                }
+                else
+                    return;
+                
+                if(field.getType().isInstance(copied))
+                    ReflectionUtils.setField(field, copy, copied);
+            }
+        }, new FieldFilter() {
+            public boolean matches(Field field) {
+                return !Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers());
+            }
+        });
+        
+        return copy;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("EntityCache [size=%d, hit=%d, miss=%d, eviction=%d]", 
+                size(), getHitCount(), getMissCount(), getEvictionCount());
+    }
+    
+    private static class Entry {
+        
+        private final Object entity;
+        private final long expiresAt;
+        
+        public Entry(Object entity, long expiresAt) {
+            this.entity = entity;
+            this.expiresAt = expiresAt;
+        }
+        
+        public boolean isExpired() {
+            return expiresAt < System.currentTimeMillis();
+        }
+        
+    }
+
+}
@@ -0,0 +1,222 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import kr.arawn.springframework.data.sqlmap.repository.Slice;
+import kr.arawn.springframework.data.sqlmap.repository.factory.SqlmapEntityInformation;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.ReflectionUtils.FieldCallback;
+import org.springframework.util.ReflectionUtils.FieldFilter;
+
+/**
+ * 조회한 entity 의 필드 값을 entity 인스턴스 별로 보관하는 크기가 제한된 LRU 저장소
+ * 
+ * 같은 id 를 여러 번 조회해도 각 인스턴스는 자신이 조회될 때의 값과만 비교된다.
+ * 인스턴스는 약하게 참조하므로 사용하지 않게 된 entity 의 snapshot 은 GC 와 함께 정리된다.
+ * 
+ * id 를 제외한 단순 type(primitive, wrapper, String, Date, enum ...) 필드만 비교하며
+ * List 같은 연관 객체의 변경은 추적하지 않는다.
+ */
+public class EntitySnapshots {
+    
+    private final SqlmapEntityInformation<?, ?> entityInformation;
+    private final Field[] fields;
+    private final Map<EntityKey, Snapshot> snapshots;
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+    
+    public EntitySnapshots(SqlmapEntityInformation<?, ?> entityInformation, final int maxSize) {
+        Assert.notNull(entityInformation);
+        Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+        
+        this.entityInformation = entityInformation;
+        this.fields = findTrackedFields(entityInformation.getJavaType(), entityInformation.getIdPropertyName());
+        this.snapshots = new LinkedHashMap<EntityKey, Snapshot>(16, 0.75f, true) {
+            private static final long serialVersionUID = -2417402385620127390L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EntityKey, Snapshot> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+    
+    private static Field[] findTrackedFields(Class<?> domainClass, final String idPropertyName) {
+        final List<Field> fields = new ArrayList<Field>();
+        ReflectionUtils.doWithFields(domainClass, new FieldCallback() {
+            public void doWith(Field field) {
+                ReflectionUtils.makeAccessible(field);
+                fields.add(field);
+            }
+        }, new FieldFilter() {
+            public boolean matches(Field field) {
+                int modifiers = field.getModifiers();
+                return !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+                        && !field.getName().equals(idPropertyName)
+                        && BeanUtils.isSimpleProperty(field.getType());
+            }
+        });
+        
+        return fields.toArray(new Field[fields.size()]);
+    }
+    
+    /**
+     * result 가 entity 이거나 entity 를 담은 Collection, Page, Slice 이면 각 entity 의 snapshot 을 남긴다.
+     */
+    public void takeAll(Object result) {
+        if(result == null)
+            return;
+        
+        Iterable<?> entities;
+        if(result instanceof Collection)
+            entities = (Collection<?>) result;
+        else if(result instanceof Page)
+            entities = (Page<?>) result;
+        else if(result instanceof Slice)
+            entities = (Slice<?>) result;
+        else
+            entities = null;
+        
+        if(entities == null) {
+            take(result);
+            return;
+        }
+        
+        for(Object entity : entities) {
+            take(entity);
+        }
+    }
+    
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void take(Object entity) {
+        if(!entityInformation.getJavaType().isInstance(entity))
+            return;
+        
+        Object id = ((SqlmapEntityInformation) entityInformation).getId(entity);
+        if(id == null)
+            return;
+        
+        Object[] values = new Object[fields.length];
+        for(int i = 0; i < fields.length; i++) {
+            values[i] = ReflectionUtils.getField(fields[i], entity);
+        }
+        
+        synchronized (snapshots) {
+            expungeStaleEntries();
+            snapshots.put(new EntityKey(entity, queue), new Snapshot(id, values));
+        }
+    }
+    
+    /**
+     * 이 entity 인스턴스의 snapshot 과 다른 property 와 현재 값, snapshot 이 없으면 null
+     */
+    public Map<String, Object> getDirtyProperties(Object entity) {
+        Snapshot snapshot;
+        synchronized (snapshots) {
+            expungeStaleEntries();
+            snapshot = snapshots.get(new EntityKey(entity, null));
+        }
+        if(snapshot == null)
+            return null;
+        
+        Object[] values = snapshot.values;
+        Map<String, Object> dirty = new LinkedHashMap<String, Object>();
+        for(int i = 0; i < fields.length; i++) {
+            Object value = ReflectionUtils.getField(fields[i], entity);
+            if(!ObjectUtils.nullSafeEquals(values[i], value))
+                dirty.put(fields[i].getName(), value);
+        }
+        
+        return dirty;
+    }
+    
+    /**
+     * id 가 같은 모든 인스턴스의 snapshot 을 지운다.
+     */
+    public void evict(Object id) {
+        synchronized (snapshots) {
+            expungeStaleEntries();
+            for(Iterator<Snapshot> it = snapshots.values().iterator(); it.hasNext();) {
+                if(ObjectUtils.nullSafeEquals(it.next().id, id))
+                    it.remove();
+            }
+        }
+    }
+    
+    public void clear() {
+        synchronized (snapshots) {
+            snapshots.clear();
+            while(queue.poll() != null);
+        }
+    }
+    
+    public int size() {
+        synchronized (snapshots) {
+            expungeStaleEntries();
+            return snapshots.size();
+        }
+    }
+    
+    private void expungeStaleEntries() {
+        Object key;
+        while((key = queue.poll()) != null) {
+            snapshots.remove(key);
+        }
+    }
+    
+    /**
+     * entity 를 약하게 참조하고 인스턴스가 같을 때만 같은 key
+     */
+    private static class EntityKey extends WeakReference<Object> {
+        
+        private final int hash;
+        
+        EntityKey(Object entity, ReferenceQueue<Object> queue) {
+            super(entity, queue);
+            this.hash = System.identityHashCode(entity);
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if(obj == this)
+                return true;
+            if(!(obj instanceof EntityKey))
+                return false;
+            
+            Object entity = get();
+            return entity != null && entity == ((EntityKey) obj).get();
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+    }
+    
+    private static class Snapshot {
+        
+        private final Object id;
+        private final Object[] values;
+        
+        Snapshot(Object id, Object[] values) {
+            this.id = id;
+            this.values = values;
+        }
+        
+    }
+
+}
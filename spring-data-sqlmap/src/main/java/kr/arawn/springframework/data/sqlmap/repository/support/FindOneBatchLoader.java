@@ -0,0 +1,159 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import kr.arawn.springframework.data.sqlmap.repository.SqlmapRepository;
+import kr.arawn.springframework.data.sqlmap.repository.factory.SqlmapEntityInformation;
+
+import org.springframework.util.Assert;
+
+/**
+ * findOne(id) 대신 load(id) 로 요청을 모았다가 findAll(ids) 한번으로 조회한다.
+ *
+ * 모인 요청은 dispatch() 를 호출하거나, 반환된 Future 중 하나의 get() 을 호출하거나,
+ * maxBatchSize 만큼 모였을 때 조회된다. 요청 범위(scope) 마다 하나씩 만들어 사용한다.
+ */
+public class FindOneBatchLoader<T, ID extends Serializable> {
+
+    private final SqlmapRepository<T, ID> repository;
+    private final SqlmapEntityInformation<T, ?> entityInformation;
+    private final int maxBatchSize;
+
+    private Map<ID, LoadFuture<T>> pending = new LinkedHashMap<ID, LoadFuture<T>>();
+
+    public FindOneBatchLoader(SqlmapRepository<T, ID> repository, SqlmapEntityInformation<T, ?> entityInformation) {
+        this(repository, entityInformation, Integer.MAX_VALUE);
+    }
+
+    public FindOneBatchLoader(SqlmapRepository<T, ID> repository, SqlmapEntityInformation<T, ?> entityInformation,
+            int maxBatchSize) {
+        Assert.notNull(repository);
+        Assert.notNull(entityInformation);
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+
+        this.repository = repository;
+        this.entityInformation = entityInformation;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * id 에 해당하는 entity 를 조회 대기열에 넣고 결과를 받을 Future 를 반환한다. 없는 id 의 결과는 null 이다.
+     */
+    public Future<T> load(ID id) {
+        Assert.notNull(id, "id must not be null");
+
+        LoadFuture<T> future;
+        boolean full;
+        synchronized (this) {
+            future = pending.get(id);
+            if(future != null)
+                return future;
+
+            future = new LoadFuture<T>(this);
+            pending.put(id, future);
+            full = pending.size() >= maxBatchSize;
+        }
+
+        if(full)
+            dispatch();
+
+        return future;
+    }
+
+    /**
+     * 모인 요청을 한번에 조회한다. 조회가 실패하면 요청마다 ExecutionException 으로 전달된다.
+     */
+    public void dispatch() {
+        Map<ID, LoadFuture<T>> batch;
+        synchronized (this) {
+            if(pending.isEmpty())
+                return;
+
+            batch = pending;
+            pending = new LinkedHashMap<ID, LoadFuture<T>>();
+        }
+
+        Map<Object, T> entities = new HashMap<Object, T>();
+        try {
+            for(T entity : repository.findAll(batch.keySet())) {
+                entities.put(entityInformation.getId(entity), entity);
+            }
+        } catch (RuntimeException e) {
+            for(LoadFuture<T> future : batch.values()) {
+                future.complete(null, e);
+            }
+            return;
+        }
+
+        for(Map.Entry<ID, LoadFuture<T>> entry : batch.entrySet()) {
+            entry.getValue().complete(entities.get(entry.getKey()), null);
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private static class LoadFuture<T> implements Future<T> {
+
+        private final FindOneBatchLoader<T, ?> loader;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile T entity;
+        private volatile RuntimeException failure;
+
+        public LoadFuture(FindOneBatchLoader<T, ?> loader) {
+            this.loader = loader;
+        }
+
+        void complete(T entity, RuntimeException failure) {
+            this.entity = entity;
+            this.failure = failure;
+            latch.countDown();
+        }
+
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return false;
+        }
+
+        public boolean isDone() {
+            return latch.getCount() == 0;
+        }
+
+        public T get() throws InterruptedException, ExecutionException {
+            if(!isDone())
+                loader.dispatch();
+
+            latch.await();
+            return report();
+        }
+
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            if(!isDone())
+                loader.dispatch();
+
+            if(!latch.await(timeout, unit))
+                throw new TimeoutException();
+            return report();
+        }
+
+        private T report() throws ExecutionException {
+            if(failure != null)
+                throw new ExecutionException(failure);
+            return entity;
+        }
+
+    }
+
+}
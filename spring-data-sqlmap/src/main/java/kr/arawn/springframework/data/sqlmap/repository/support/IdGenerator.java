@@ -0,0 +1,10 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+/**
+ * 저장하기 전에 entity 에 넣을 id 를 만든다.
+ */
+public interface IdGenerator {
+    
+    long nextId();
+
+}
@@ -0,0 +1,106 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 같은 statement id 와 parameter 로 동시에 실행되는 조회를 한번만 실행하고 결과를 나눠 갖는다.
+ *
+ * 먼저 들어온 쓰레드가 조회를 실행하고 나머지 쓰레드는 그 결과를 기다린다.
+ * 쓰기가 가능한 트랜잭션 안에서는 커밋되지 않은 값을 다른 쓰레드에 넘길 수 있으므로 합치지 않고 바로 실행한다.
+ * 읽기 전용 트랜잭션은 Repository 의 기본 트랜잭션이므로 합친다.
+ * List 결과는 쓰레드마다 복사해서 주지만 그 안의 entity 는 같은 인스턴스를 공유한다.
+ */
+public class InFlightQueryCoalescer {
+
+    private final ConcurrentMap<StatementKey, Call> calls = new ConcurrentHashMap<StatementKey, Call>();
+
+    private final AtomicLong executionCount = new AtomicLong();
+    private final AtomicLong sharedCount = new AtomicLong();
+
+    public Object execute(String statementId, Object parameter, Query query) {
+        if(TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+            return query.execute();
+
+        StatementKey key = new StatementKey(statementId, parameter);
+        Call call = new Call();
+        Call inFlight = calls.putIfAbsent(key, call);
+        if(inFlight != null) {
+            try {
+                Object result = inFlight.await();
+                sharedCount.incrementAndGet();
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return query.execute();
+            }
+        }
+
+        executionCount.incrementAndGet();
+        try {
+            call.result = query.execute();
+            return call.result;
+        } catch (RuntimeException e) {
+            call.failure = e;
+            throw e;
+        } catch (Error e) {
+            call.failure = e;
+            throw e;
+        } finally {
+            calls.remove(key, call);
+            call.latch.countDown();
+        }
+    }
+
+    public long getExecutionCount() {
+        return executionCount.get();
+    }
+
+    public long getSharedCount() {
+        return sharedCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InFlightQueryCoalescer [execution=%d, shared=%d]", getExecutionCount(), getSharedCount());
+    }
+
+    /**
+     * 실제로 데이터베이스에 조회를 실행하는 callback
+     */
+    public interface Query {
+
+        Object execute();
+
+    }
+
+    private static class Call {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Object result;
+        private volatile Throwable failure;
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        public Object await() throws InterruptedException {
+            latch.await();
+
+            if(failure instanceof RuntimeException)
+                throw (RuntimeException) failure;
+            if(failure instanceof Error)
+                throw (Error) failure;
+
+            if(result instanceof List)
+                return new ArrayList((List) result);
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,158 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.util.ClassUtils;
+
+/**
+ * statement 의 parameter 를 로그에 남길 수 있는 문자열로 바꾼다.
+ *
+ * 이름이 password, secret, token 등을 포함하는 값은 가리고, 긴 문자열과 큰 collection 은 잘라낸다.
+ * Map 과 bean 은 maxDepth 단계까지만 펼친다.
+ */
+public class ParameterSanitizer {
+    
+    public static final String MASK = "****";
+    
+    private Pattern sensitiveName = Pattern.compile("(?i).*(password|passwd|secret|token|credential).*");
+    private int maxLength = 100;
+    private int maxElements = 10;
+    private int maxDepth = 2;
+    
+    public void setSensitiveName(String sensitiveNameRegex) {
+        this.sensitiveName = Pattern.compile(sensitiveNameRegex);
+    }
+    
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+    
+    public void setMaxElements(int maxElements) {
+        this.maxElements = maxElements;
+    }
+    
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+    
+    public String sanitize(Object parameter) {
+        StringBuilder builder = new StringBuilder();
+        append(builder, parameter, 0);
+        return builder.toString();
+    }
+    
+    protected boolean isSensitive(String name) {
+        return name != null && sensitiveName.matcher(name).matches();
+    }
+    
+    private void append(StringBuilder builder, Object value, int depth) {
+        if(value == null) {
+            builder.append("null");
+        }
+        else if(value instanceof CharSequence) {
+            String text = value.toString();
+            builder.append('\'');
+            if(text.length() > maxLength)
+                builder.append(text, 0, maxLength).append("...(").append(text.length()).append(')');
+            else
+                builder.append(text);
+            builder.append('\'');
+        }
+        else if(value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof Date || value instanceof Enum<?> || ClassUtils.isPrimitiveOrWrapper(value.getClass())) {
+            builder.append(value);
+        }
+        else if(depth >= maxDepth) {
+            builder.append(ClassUtils.getShortName(value.getClass())).append("{...}");
+        }
+        else if(value instanceof Map<?, ?>) {
+            appendMap(builder, (Map<?, ?>) value, depth);
+        }
+        else if(value instanceof Collection<?>) {
+            appendElements(builder, ((Collection<?>) value).iterator(), ((Collection<?>) value).size(), depth);
+        }
+        else if(value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            builder.append('[');
+            for(int i = 0; i < length && i < maxElements; i++) {
+                if(i > 0)
+                    builder.append(", ");
+                append(builder, Array.get(value, i), depth + 1);
+            }
+            appendRemains(builder, length).append(']');
+        }
+        else {
+            appendBean(builder, value, depth);
+        }
+    }
+    
+    private void appendMap(StringBuilder builder, Map<?, ?> map, int depth) {
+        builder.append('{');
+        int count = 0;
+        for(Map.Entry<?, ?> entry : map.entrySet()) {
+            if(count >= maxElements)
+                break;
+            if(count++ > 0)
+                builder.append(", ");
+            
+            String name = String.valueOf(entry.getKey());
+            builder.append(name).append('=');
+            if(isSensitive(name))
+                builder.append(MASK);
+            else
+                append(builder, entry.getValue(), depth + 1);
+        }
+        appendRemains(builder, map.size()).append('}');
+    }
+    
+    private void appendElements(StringBuilder builder, Iterator<?> iterator, int size, int depth) {
+        builder.append('[');
+        for(int i = 0; i < maxElements && iterator.hasNext(); i++) {
+            if(i > 0)
+                builder.append(", ");
+            append(builder, iterator.next(), depth + 1);
+        }
+        appendRemains(builder, size).append(']');
+    }
+    
+    private StringBuilder appendRemains(StringBuilder builder, int size) {
+        if(size > maxElements)
+            builder.append(", ...(").append(size).append(')');
+        return builder;
+    }
+    
+    private void appendBean(StringBuilder builder, Object bean, int depth) {
+        BeanWrapper wrapper = new BeanWrapperImpl(bean);
+        builder.append(ClassUtils.getShortName(bean.getClass())).append('{');
+        int count = 0;
+        for(PropertyDescriptor descriptor : wrapper.getPropertyDescriptors()) {
+            String name = descriptor.getName();
+            if("class".equals(name) || !wrapper.isReadableProperty(name))
+                continue;
+            if(count++ > 0)
+                builder.append(", ");
+            
+            builder.append(name).append('=');
+            if(isSensitive(name)) {
+                builder.append(MASK);
+                continue;
+            }
+            
+            try {
+                append(builder, wrapper.getPropertyValue(name), depth + 1);
+            } catch (RuntimeException e) {
+                builder.append('?');
+            }
+        }
+        builder.append('}');
+    }
+
+}
@@ -0,0 +1,213 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import kr.arawn.springframework.data.sqlmap.repository.Slice;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.Assert;
+
+/**
+ * statement id 와 parameter 를 키로 조회 결과를 보관하는 캐시
+ * 
+ * 결과의 무게는 Collection 이면 크기, 그 외에는 1 이며 전체 무게가 maxWeight 를 넘으면
+ * 가장 오래 사용되지 않은 결과부터 제거된다. 캐시된 List 는 변경할 수 없다.
+ * 
+ * 결과 안의 entity 는 {@link EntityCache} 와 같이 복사본을 보관하고 조회할 때마다 새 복사본을 반환하므로
+ * 한 호출자가 entity 를 변경해도 다른 호출자에게 영향을 주지 않는다. 복사할 수 없는 entity 가 있으면 캐시하지 않는다.
+ */
+public class QueryResultCache {
+    
+    public static final long DEFAULT_MAX_WEIGHT = 10000;
+    
+    private final long maxWeight;
+    private final LinkedHashMap<StatementKey, Entry> entries = new LinkedHashMap<StatementKey, Entry>(16, 0.75f, true);
+    
+    private long weight = 0;
+    private long generation = 0;
+    
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    
+    public QueryResultCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+    
+    public QueryResultCache(long maxWeight) {
+        Assert.isTrue(maxWeight > 0, "maxWeight must be greater than 0");
+        this.maxWeight = maxWeight;
+    }
+    
+    public Object get(String statementId, Object parameter) {
+        StatementKey key = new StatementKey(statementId, parameter);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if(entry != null && entry.expiresAt < System.currentTimeMillis()) {
+                remove(key);
+                evictionCount.incrementAndGet();
+                entry = null;
+            }
+        }
+        
+        if(entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        
+        hitCount.incrementAndGet();
+        return copy(entry.result);
+    }
+    
+    public long getGeneration() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+    
+    /**
+     * 결과를 저장하고 캐시된 결과를 반환한다. 조회하는 동안 clear() 가 있었다면 저장하지 않는다.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public Object put(String statementId, Object parameter, Object result, long timeToLive, long generation) {
+        if(result == null)
+            return null;
+        
+        if(result instanceof List)
+            result = Collections.unmodifiableList((List) result);
+        
+        long resultWeight = result instanceof Collection ? Math.max(((Collection) result).size(), 1) : 1;
+        if(resultWeight > maxWeight)
+            return result;
+        
+        Object cached = copy(result);
+        if(cached == null)
+            return result;
+        
+        StatementKey key = new StatementKey(statementId, parameter);
+        synchronized (entries) {
+            if(this.generation != generation)
+                return result;
+            
+            remove(key);
+            entries.put(key, new Entry(cached, resultWeight, System.currentTimeMillis() + timeToLive));
+            weight += resultWeight;
+            
+            Iterator<Map.Entry<StatementKey, Entry>> eldest = entries.entrySet().iterator();
+            while(weight > maxWeight && eldest.hasNext()) {
+                weight -= eldest.next().getValue().weight;
+                eldest.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * result 와 그 안의 entity 의 복사본, 복사할 수 없으면 null
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static Object copy(Object result) {
+        if(result instanceof List) {
+            List content = copyAll((List) result);
+            return content == null ? null : Collections.unmodifiableList(content);
+        }
+        
+        if(result instanceof Page) {
+            Page page = (Page) result;
+            List content = copyAll(page.getContent());
+            if(content == null)
+                return null;
+            if(page.getSize() == 0)
+                return new PageImpl(content);
+            return new PageImpl(content, new PageRequest(page.getNumber(), page.getSize(), page.getSort()), page.getTotalElements());
+        }
+        
+        if(result instanceof Slice) {
+            Slice slice = (Slice) result;
+            List content = copyAll(slice.getContent());
+            return content == null ? null : new Slice(content, slice.getKeyset(), slice.hasNext(), slice.getCursor());
+        }
+        
+        return EntityCache.copy(result);
+    }
+    
+    private static List<Object> copyAll(List<?> entities) {
+        List<Object> copies = new ArrayList<Object>(entities.size());
+        for(Object entity : entities) {
+            Object copy = entity == null ? null : EntityCache.copy(entity);
+            if(entity != null && copy == null)
+                return null;
+            copies.add(copy);
+        }
+        return copies;
+    }
+    
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+            weight = 0;
+        }
+    }
+    
+    private void remove(StatementKey key) {
+        Entry removed = entries.remove(key);
+        if(removed != null)
+            weight -= removed.weight;
+    }
+    
+    public long getWeight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+    
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+    
+    public long getHitCount() {
+        return hitCount.get();
+    }
+    
+    public long getMissCount() {
+        return missCount.get();
+    }
+    
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("QueryResultCache [weight=%d, hit=%d, miss=%d, eviction=%d]", 
+                getWeight(), getHitCount(), getMissCount(), getEvictionCount());
+    }
+    
+    private static class Entry {
+        
+        private final Object result;
+        private final long weight;
+        private final long expiresAt;
+        
+        public Entry(Object result, long weight, long expiresAt) {
+            this.result = result;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+        
+    }
+
+}
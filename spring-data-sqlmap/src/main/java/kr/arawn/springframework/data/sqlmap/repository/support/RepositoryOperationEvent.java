@@ -0,0 +1,92 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.lang.reflect.Method;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Repository 를 통해 실행된 statement 하나의 기록
+ *
+ * 시작 시각과 쓰레드 이름을 함께 담고 있으므로 GC 로그나 thread dump 와 시간을 맞춰 볼 수 있다.
+ */
+public class RepositoryOperationEvent {
+    
+    private final Class<?> repositoryInterface;
+    private final Method method;
+    private final String statementId;
+    private final StatementOperation operation;
+    private final int rows;
+    private final long duration;
+    private final long startTime;
+    private final String threadName;
+    private final boolean failed;
+    
+    public RepositoryOperationEvent(CurrentRepositoryMethod repositoryMethod, String statementId, 
+            StatementOperation operation, int rows, long duration, long startTime, String threadName, boolean failed) {
+        this.repositoryInterface = repositoryMethod == null ? null : repositoryMethod.getRepositoryInterface();
+        this.method = repositoryMethod == null ? null : repositoryMethod.getMethod();
+        this.statementId = statementId;
+        this.operation = operation;
+        this.rows = rows;
+        this.duration = duration;
+        this.startTime = startTime;
+        this.threadName = threadName;
+        this.failed = failed;
+    }
+    
+    /**
+     * statement 를 실행한 Repository interface, Repository 밖에서 실행되었으면 null
+     */
+    public Class<?> getRepositoryInterface() {
+        return repositoryInterface;
+    }
+    
+    /**
+     * statement 를 실행한 Repository 메소드, Repository 밖에서 실행되었으면 null
+     */
+    public Method getMethod() {
+        return method;
+    }
+    
+    public String getStatementId() {
+        return statementId;
+    }
+    
+    public StatementOperation getOperation() {
+        return operation;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    /**
+     * 실행 시간, nano 초
+     */
+    public long getDuration() {
+        return duration;
+    }
+    
+    /**
+     * 시작 시각, milli 초 (System.currentTimeMillis 기준)
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+    
+    public String getThreadName() {
+        return threadName;
+    }
+    
+    public boolean isFailed() {
+        return failed;
+    }
+    
+    @Override
+    public String toString() {
+        String repositoryMethod = method == null ? "-" : ClassUtils.getShortName(repositoryInterface) + "." + method.getName();
+        return String.format("%s %s (%s) : %d rows, %.3fms, thread %s%s", operation, statementId, repositoryMethod, 
+                rows, duration / 1000000d, threadName, failed ? ", failed" : "");
+    }
+
+}
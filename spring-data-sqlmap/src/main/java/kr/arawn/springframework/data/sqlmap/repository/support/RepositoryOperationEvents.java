@@ -0,0 +1,90 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Repository 를 통해 실행된 statement 의 event 를 listener 에게 넘긴다.
+ *
+ * enabled 가 false 이거나 listener 가 없으면 event 를 만들지 않고,
+ * threshold(milli 초)보다 빨리 끝난 statement 의 event 는 버린다.
+ */
+public class RepositoryOperationEvents implements StatementInterceptor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryOperationEvents.class);
+    
+    private final List<RepositoryOperationListener> listeners = new CopyOnWriteArrayList<RepositoryOperationListener>();
+    
+    private volatile boolean enabled = true;
+    private volatile long thresholdNanos = 0;
+    
+    public boolean isEnabled() {
+        return enabled && !listeners.isEmpty();
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    /**
+     * @param threshold milli 초
+     */
+    public void setThreshold(long threshold) {
+        Assert.isTrue(threshold >= 0, "threshold must not be negative");
+        this.thresholdNanos = threshold * 1000000L;
+    }
+    
+    public long getThreshold() {
+        return thresholdNanos / 1000000L;
+    }
+    
+    public void setListeners(List<RepositoryOperationListener> listeners) {
+        this.listeners.clear();
+        this.listeners.addAll(listeners);
+    }
+    
+    public void addListener(RepositoryOperationListener listener) {
+        Assert.notNull(listener);
+        listeners.add(listener);
+    }
+    
+    public void removeListener(RepositoryOperationListener listener) {
+        listeners.remove(listener);
+    }
+    
+    public Object intercept(StatementExecution execution) {
+        if(!isEnabled())
+            return execution.proceed();
+        
+        long start = System.nanoTime();
+        try {
+            Object result = execution.proceed();
+            emit(execution.getStatementId(), execution.getOperation(), execution.getRows(), System.nanoTime() - start, false);
+            return result;
+        } catch (RuntimeException e) {
+            emit(execution.getStatementId(), execution.getOperation(), 0, System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+    
+    public void emit(String statementId, StatementOperation operation, int rows, long duration, boolean failed) {
+        if(!isEnabled() || duration < thresholdNanos)
+            return;
+        
+        RepositoryOperationEvent event = new RepositoryOperationEvent(CurrentRepositoryMethod.get(), statementId, operation, 
+                rows, duration, System.currentTimeMillis() - duration / 1000000L, Thread.currentThread().getName(), failed);
+        
+        for(RepositoryOperationListener listener : listeners) {
+            try {
+                listener.onOperation(event);
+            } catch (RuntimeException e) {
+                logger.warn("RepositoryOperationListener 실행에 실패했습니다. [" + listener + "]", e);
+            }
+        }
+    }
+
+}
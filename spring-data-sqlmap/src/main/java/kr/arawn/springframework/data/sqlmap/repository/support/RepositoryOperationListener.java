@@ -0,0 +1,11 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+/**
+ * {@link RepositoryOperationEvents} 가 넘기는 event 를 받는다.
+ * statement 를 실행한 쓰레드에서 호출되므로 오래 걸리는 작업은 다른 쓰레드로 넘겨야 한다.
+ */
+public interface RepositoryOperationListener {
+    
+    void onOperation(RepositoryOperationEvent event);
+
+}
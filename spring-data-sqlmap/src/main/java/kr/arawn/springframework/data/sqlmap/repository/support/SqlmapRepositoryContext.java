@@ -0,0 +1,186 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * 하나의 Repository 와 그 Repository 의 사용자 정의 메소드들이 함께 사용하는 캐시와 executor
+ */
+public class SqlmapRepositoryContext {
+    
+    private CountCache countCache;
+    private EntityCache entityCache;
+    private EntitySnapshots entitySnapshots;
+    private WriteBehindUnitOfWork unitOfWork;
+    private QueryResultCache queryResultCache;
+    private InFlightQueryCoalescer inFlightQueryCoalescer;
+    private TaskExecutor streamingExecutor;
+    private AsyncTaskExecutor parallelQueryExecutor;
+    private AsyncTaskExecutor asyncExecutor;
+    
+    public CountCache getCountCache() {
+        return countCache;
+    }
+    
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
+    
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+    
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+    
+    public EntitySnapshots getEntitySnapshots() {
+        return entitySnapshots;
+    }
+    
+    public void setEntitySnapshots(EntitySnapshots entitySnapshots) {
+        this.entitySnapshots = entitySnapshots;
+    }
+    
+    /**
+     * entitySnapshots 가 설정되어 있으면 데이터베이스에서 읽은 result 의 snapshot 을 남긴다.
+     */
+    public <R> R snapshot(R result) {
+        if(entitySnapshots != null)
+            entitySnapshots.takeAll(result);
+        
+        return result;
+    }
+    
+    public WriteBehindUnitOfWork getUnitOfWork() {
+        return unitOfWork;
+    }
+    
+    public void setUnitOfWork(WriteBehindUnitOfWork unitOfWork) {
+        this.unitOfWork = unitOfWork;
+    }
+    
+    /**
+     * unitOfWork 가 설정되어 있으면 현재 트랜잭션에 모아둔 쓰기를 실행한다. 조회하기 전에 호출해야 한다.
+     */
+    public void flushPendingWrites() {
+        if(unitOfWork != null)
+            unitOfWork.flush();
+    }
+    
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+    
+    public void setQueryResultCache(QueryResultCache queryResultCache) {
+        this.queryResultCache = queryResultCache;
+    }
+    
+    public InFlightQueryCoalescer getInFlightQueryCoalescer() {
+        return inFlightQueryCoalescer;
+    }
+    
+    public void setInFlightQueryCoalescer(InFlightQueryCoalescer inFlightQueryCoalescer) {
+        this.inFlightQueryCoalescer = inFlightQueryCoalescer;
+    }
+    
+    public TaskExecutor getStreamingExecutor() {
+        return streamingExecutor;
+    }
+    
+    public void setStreamingExecutor(TaskExecutor streamingExecutor) {
+        this.streamingExecutor = streamingExecutor;
+    }
+    
+    public AsyncTaskExecutor getParallelQueryExecutor() {
+        return parallelQueryExecutor;
+    }
+    
+    public void setParallelQueryExecutor(AsyncTaskExecutor parallelQueryExecutor) {
+        this.parallelQueryExecutor = parallelQueryExecutor;
+    }
+    
+    public AsyncTaskExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+    
+    public void setAsyncExecutor(AsyncTaskExecutor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+    
+    /**
+     * task 를 asyncExecutor 에서 실행한다.
+     * task 는 호출한 쓰레드의 트랜잭션에 참여하지 않으므로 커밋되지 않은 변경은 볼 수 없다.
+     */
+    public <V> Future<V> submit(Callable<V> task) {
+        Assert.state(asyncExecutor != null, "asyncExecutor 가 설정되지 않았습니다.");
+        return asyncExecutor.submit(task);
+    }
+    
+    /**
+     * 읽은 값을 캐시에 넣어도 되는지 확인한다.
+     * 쓰기가 가능한 트랜잭션 안에서 읽은 값은 커밋되지 않은 값일 수 있으므로 캐시하지 않는다.
+     */
+    public boolean isCachePopulatable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+    
+    /**
+     * ids 에 해당하는 entity 가 변경되었을 때 호출한다.
+     */
+    public void invalidate(final Collection<?> ids) {
+        evict(ids);
+        
+        // 트랜잭션이 끝나기 전에 다른 쓰레드가 이전 값을 다시 캐시할 수 있으므로 트랜잭션이 끝난 후에 한번 더 비운다.
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(ids);
+                }
+            });
+        }
+    }
+    
+    /**
+     * 어떤 entity 가 변경되었는지 알 수 없을 때 호출한다.
+     */
+    public void invalidateAll() {
+        invalidate(null);
+    }
+    
+    private void evict(Collection<?> ids) {
+        if(countCache != null)
+            countCache.clear();
+        
+        if(queryResultCache != null)
+            queryResultCache.clear();
+        
+        if(entityCache != null) {
+            if(ids == null)
+                entityCache.clear();
+            else
+                for(Object id : ids) {
+                    entityCache.evict(id);
+                }
+        }
+        
+        if(entitySnapshots != null) {
+            if(ids == null)
+                entitySnapshots.clear();
+            else
+                for(Object id : ids) {
+                    entitySnapshots.evict(id);
+                }
+        }
+    }
+
+}
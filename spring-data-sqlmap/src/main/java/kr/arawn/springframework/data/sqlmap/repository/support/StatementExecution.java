@@ -0,0 +1,99 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * interceptor 가 보는 statement 실행 하나
+ *
+ * interceptor 는 proceed() 전에 parameter 를 바꿀 수 있고, proceed() 후에 결과와 row 수를 볼 수 있다.
+ */
+public abstract class StatementExecution {
+    
+    private final StatementInterceptor[] interceptors;
+    private final StatementOperation operation;
+    private final String statementId;
+    
+    private Object parameter;
+    private Object result;
+    private int rows = -1;
+    private int index = 0;
+    
+    protected StatementExecution(StatementInterceptor[] interceptors, StatementOperation operation, 
+            String statementId, Object parameter) {
+        this.interceptors = interceptors;
+        this.operation = operation;
+        this.statementId = statementId;
+        this.parameter = parameter;
+    }
+    
+    /**
+     * 다음 interceptor 를 실행하고, 남은 interceptor 가 없으면 statement 를 실행한다.
+     */
+    public Object proceed() {
+        if(index < interceptors.length)
+            return interceptors[index++].intercept(this);
+        
+        result = invoke(parameter);
+        return result;
+    }
+    
+    /**
+     * statement 를 실행한다.
+     */
+    protected abstract Object invoke(Object parameter);
+    
+    public StatementOperation getOperation() {
+        return operation;
+    }
+    
+    public String getStatementId() {
+        return statementId;
+    }
+    
+    public Object getParameter() {
+        return parameter;
+    }
+    
+    public void setParameter(Object parameter) {
+        this.parameter = parameter;
+    }
+    
+    /**
+     * statement 의 결과, 아직 실행되지 않았으면 null
+     */
+    public Object getResult() {
+        return result;
+    }
+    
+    /**
+     * 조회된 row 수 또는 영향받은 row 수, insert 는 1
+     * select 가 반환한 숫자(count 등)는 한 row 로 센다.
+     */
+    public int getRows() {
+        if(rows >= 0)
+            return rows;
+        
+        if(operation == StatementOperation.INSERT)
+            return 1;
+        if(operation != StatementOperation.SELECT && result instanceof Number)
+            return ((Number) result).intValue();
+        if(result instanceof Collection<?>)
+            return ((Collection<?>) result).size();
+        if(result instanceof Map<?, ?>)
+            return ((Map<?, ?>) result).size();
+        return result == null ? 0 : 1;
+    }
+    
+    protected void setRows(int rows) {
+        this.rows = rows;
+    }
+    
+    /**
+     * statement 를 실행한 Repository 메소드, 알 수 없으면 null
+     */
+    public CurrentRepositoryMethod getRepositoryMethod() {
+        return CurrentRepositoryMethod.get();
+    }
+
+}
@@ -0,0 +1,13 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+/**
+ * Repository 가 SqlMapClientTemplate 으로 실행하는 statement 를 감싼다.
+ *
+ * {@link StatementExecution#proceed()} 를 호출하면 다음 interceptor 또는 statement 가 실행되고,
+ * 호출하지 않으면 반환한 값이 statement 의 결과가 된다. 등록된 순서대로(Ordered 를 구현했으면 그 순서로) 실행된다.
+ */
+public interface StatementInterceptor {
+    
+    Object intercept(StatementExecution execution);
+
+}
@@ -0,0 +1,39 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import org.springframework.util.ObjectUtils;
+
+/**
+ * statement id 와 parameter 로 만든 키, parameter 는 equals/hashCode 로 비교한다.
+ */
+class StatementKey {
+    
+    private final String statementId;
+    private final Object parameter;
+    
+    public StatementKey(String statementId, Object parameter) {
+        this.statementId = statementId;
+        this.parameter = parameter;
+    }
+    
+    @Override
+    public int hashCode() {
+        return statementId.hashCode() * 31 + ObjectUtils.nullSafeHashCode(parameter);
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj)
+            return true;
+        if(!(obj instanceof StatementKey))
+            return false;
+        
+        StatementKey other = (StatementKey) obj;
+        return statementId.equals(other.statementId) && ObjectUtils.nullSafeEquals(parameter, other.parameter);
+    }
+    
+    @Override
+    public String toString() {
+        return statementId + "(" + ObjectUtils.nullSafeToString(parameter) + ")";
+    }
+
+}
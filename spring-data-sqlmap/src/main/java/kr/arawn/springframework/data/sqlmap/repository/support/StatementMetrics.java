@@ -0,0 +1,172 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.Assert;
+
+/**
+ * statement id 별 {@link StatementStatistics} 를 모은다.
+ *
+ * 표준 MBean 이므로 MBeanExporter(ex. &lt;context:mbean-export /&gt;)로 JMX 에 노출할 수 있다.
+ * {@link StatementInterceptor} 로 등록되며 enabled 가 false 이면 기록하지 않는다.
+ */
+public class StatementMetrics implements StatementMetricsMBean, StatementInterceptor {
+    
+    private static final double NANOS_PER_MILLI = 1000000d;
+    
+    private final ConcurrentMap<String, StatementStatistics> statistics = new ConcurrentHashMap<String, StatementStatistics>();
+    private final ConcurrentMap<String, EntityCache> entityCaches = new ConcurrentHashMap<String, EntityCache>();
+    
+    private volatile boolean enabled = true;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public Object intercept(StatementExecution execution) {
+        if(!enabled)
+            return execution.proceed();
+        
+        long start = System.nanoTime();
+        try {
+            Object result = execution.proceed();
+            record(execution.getStatementId(), System.nanoTime() - start, execution.getRows(), false);
+            return result;
+        } catch (RuntimeException e) {
+            record(execution.getStatementId(), System.nanoTime() - start, 0, true);
+            throw e;
+        }
+    }
+    
+    public void record(String statementId, long elapsedNanos, int rows, boolean failed) {
+        Assert.notNull(statementId);
+        
+        StatementStatistics statementStatistics = statistics.get(statementId);
+        if(statementStatistics == null) {
+            StatementStatistics created = new StatementStatistics(statementId);
+            statementStatistics = statistics.putIfAbsent(statementId, created);
+            if(statementStatistics == null)
+                statementStatistics = created;
+        }
+        
+        statementStatistics.record(elapsedNanos, rows, failed);
+    }
+    
+    /**
+     * statementId 의 통계, 실행된 적이 없으면 null
+     */
+    public StatementStatistics getStatistics(String statementId) {
+        return statistics.get(statementId);
+    }
+    
+    /**
+     * 실행된 모든 statement 의 통계, statement id 순으로 정렬된다.
+     */
+    public List<StatementStatistics> getAllStatistics() {
+        List<String> statementIds = new ArrayList<String>(statistics.keySet());
+        Collections.sort(statementIds);
+        
+        List<StatementStatistics> result = new ArrayList<StatementStatistics>(statementIds.size());
+        for(String statementId : statementIds) {
+            result.add(statistics.get(statementId));
+        }
+        return result;
+    }
+    
+    public String[] getStatementIds() {
+        List<String> statementIds = new ArrayList<String>(statistics.keySet());
+        Collections.sort(statementIds);
+        return statementIds.toArray(new String[statementIds.size()]);
+    }
+    
+    public long getCallCount(String statementId) {
+        StatementStatistics statementStatistics = statistics.get(statementId);
+        return statementStatistics == null ? 0 : statementStatistics.getCallCount();
+    }
+    
+    public long getErrorCount(String statementId) {
+        StatementStatistics statementStatistics = statistics.get(statementId);
+        return statementStatistics == null ? 0 : statementStatistics.getErrorCount();
+    }
+    
+    public long getRowCount(String statementId) {
+        StatementStatistics statementStatistics = statistics.get(statementId);
+        return statementStatistics == null ? 0 : statementStatistics.getRowCount();
+    }
+    
+    public double getMeanTimeMillis(String statementId) {
+        StatementStatistics statementStatistics = statistics.get(statementId);
+        return statementStatistics == null ? 0 : statementStatistics.getMeanTime() / NANOS_PER_MILLI;
+    }
+    
+    public double getPercentileTimeMillis(String statementId, double percentile) {
+        StatementStatistics statementStatistics = statistics.get(statementId);
+        return statementStatistics == null ? 0 : statementStatistics.getPercentile(percentile) / NANOS_PER_MILLI;
+    }
+    
+    public double getMaxTimeMillis(String statementId) {
+        StatementStatistics statementStatistics = statistics.get(statementId);
+        return statementStatistics == null ? 0 : statementStatistics.getMaxTime() / NANOS_PER_MILLI;
+    }
+    
+    public String[] getSummaries() {
+        List<StatementStatistics> all = getAllStatistics();
+        String[] summaries = new String[all.size()];
+        for(int i = 0; i < summaries.length; i++) {
+            summaries[i] = all.get(i).toString();
+        }
+        return summaries;
+    }
+    
+    /**
+     * entityCache 의 hit/miss/eviction 수를 name 으로 함께 노출한다.
+     */
+    public void registerEntityCache(String name, EntityCache entityCache) {
+        entityCaches.put(name, entityCache);
+    }
+    
+    public String[] getEntityCacheNames() {
+        List<String> names = new ArrayList<String>(entityCaches.keySet());
+        Collections.sort(names);
+        return names.toArray(new String[names.size()]);
+    }
+    
+    public long getEntityCacheHitCount(String name) {
+        EntityCache entityCache = entityCaches.get(name);
+        return entityCache == null ? 0 : entityCache.getHitCount();
+    }
+    
+    public long getEntityCacheMissCount(String name) {
+        EntityCache entityCache = entityCaches.get(name);
+        return entityCache == null ? 0 : entityCache.getMissCount();
+    }
+    
+    public long getEntityCacheEvictionCount(String name) {
+        EntityCache entityCache = entityCaches.get(name);
+        return entityCache == null ? 0 : entityCache.getEvictionCount();
+    }
+    
+    public String[] getEntityCacheSummaries() {
+        String[] names = getEntityCacheNames();
+        String[] summaries = new String[names.length];
+        for(int i = 0; i < names.length; i++) {
+            summaries[i] = names[i] + " " + entityCaches.get(names[i]);
+        }
+        return summaries;
+    }
+    
+    public void reset() {
+        for(StatementStatistics statementStatistics : statistics.values()) {
+            statementStatistics.reset();
+        }
+    }
+
+}
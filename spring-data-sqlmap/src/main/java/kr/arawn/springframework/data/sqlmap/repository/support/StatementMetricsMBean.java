@@ -0,0 +1,41 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+/**
+ * JMX 로 노출되는 {@link StatementMetrics} 의 관리 interface
+ * 시간은 모두 milli 초 단위이다.
+ */
+public interface StatementMetricsMBean {
+    
+    boolean isEnabled();
+    
+    void setEnabled(boolean enabled);
+    
+    String[] getStatementIds();
+    
+    long getCallCount(String statementId);
+    
+    long getErrorCount(String statementId);
+    
+    long getRowCount(String statementId);
+    
+    double getMeanTimeMillis(String statementId);
+    
+    double getPercentileTimeMillis(String statementId, double percentile);
+    
+    double getMaxTimeMillis(String statementId);
+    
+    String[] getSummaries();
+    
+    String[] getEntityCacheNames();
+    
+    long getEntityCacheHitCount(String name);
+    
+    long getEntityCacheMissCount(String name);
+    
+    long getEntityCacheEvictionCount(String name);
+    
+    String[] getEntityCacheSummaries();
+    
+    void reset();
+
+}
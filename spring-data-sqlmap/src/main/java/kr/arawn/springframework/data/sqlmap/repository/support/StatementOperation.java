@@ -0,0 +1,10 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+/**
+ * statement 를 실행한 SqlMapClientTemplate 메소드의 종류
+ */
+public enum StatementOperation {
+    
+    SELECT, INSERT, UPDATE, DELETE
+
+}
@@ -0,0 +1,151 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 하나의 statement id 에 대한 실행 횟수, 실패 횟수, row 수, 실행 시간 분포
+ *
+ * 실행 시간(nano 초)은 2 의 거듭제곱 구간을 다시 4 개로 나눈 bucket 에 기록하므로
+ * 백분위 값의 오차는 25% 이내이다. 기록할 때 lock 을 사용하지 않는다.
+ */
+public class StatementStatistics {
+    
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = 64 * SUB_BUCKETS;
+    
+    private final String statementId;
+    
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong rowCount = new AtomicLong();
+    private final AtomicLong totalTime = new AtomicLong();
+    private final AtomicLong maxTime = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_COUNT);
+    
+    public StatementStatistics(String statementId) {
+        this.statementId = statementId;
+    }
+    
+    public void record(long elapsedNanos, int rows, boolean failed) {
+        if(elapsedNanos < 0)
+            elapsedNanos = 0;
+        
+        callCount.incrementAndGet();
+        if(failed)
+            errorCount.incrementAndGet();
+        if(rows > 0)
+            rowCount.addAndGet(rows);
+        totalTime.addAndGet(elapsedNanos);
+        histogram.incrementAndGet(bucketIndex(elapsedNanos));
+        
+        long max;
+        while((max = maxTime.get()) < elapsedNanos) {
+            if(maxTime.compareAndSet(max, elapsedNanos))
+                break;
+        }
+    }
+    
+    public String getStatementId() {
+        return statementId;
+    }
+    
+    public long getCallCount() {
+        return callCount.get();
+    }
+    
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+    
+    public long getRowCount() {
+        return rowCount.get();
+    }
+    
+    /**
+     * 실행 시간의 합, nano 초
+     */
+    public long getTotalTime() {
+        return totalTime.get();
+    }
+    
+    /**
+     * 가장 오래 걸린 실행 시간, nano 초
+     */
+    public long getMaxTime() {
+        return maxTime.get();
+    }
+    
+    /**
+     * 평균 실행 시간, nano 초
+     */
+    public double getMeanTime() {
+        long count = callCount.get();
+        return count == 0 ? 0 : (double) totalTime.get() / count;
+    }
+    
+    /**
+     * percentile(0 ~ 100) 에 해당하는 실행 시간, nano 초
+     * 해당 bucket 의 상한을 반환하며 가장 오래 걸린 실행 시간을 넘지 않는다.
+     */
+    public long getPercentile(double percentile) {
+        if(percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("percentile 은 0 에서 100 사이여야 합니다. [" + percentile + "]");
+        
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = histogram.get(i);
+            total += counts[i];
+        }
+        if(total == 0)
+            return 0;
+        
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long accumulated = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            accumulated += counts[i];
+            if(accumulated >= target)
+                return Math.min(upperBound(i), maxTime.get());
+        }
+        return maxTime.get();
+    }
+    
+    public void reset() {
+        callCount.set(0);
+        errorCount.set(0);
+        rowCount.set(0);
+        totalTime.set(0);
+        maxTime.set(0);
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            histogram.set(i, 0);
+        }
+    }
+    
+    static int bucketIndex(long value) {
+        if(value < SUB_BUCKETS)
+            return (int) value;
+        
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    static long upperBound(int index) {
+        if(index < SUB_BUCKETS)
+            return index;
+        
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s [calls=%d, errors=%d, rows=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, max=%.3fms]",
+                statementId, getCallCount(), getErrorCount(), getRowCount(), getMeanTime() / 1000000d,
+                getPercentile(50) / 1000000d, getPercentile(99) / 1000000d, getMaxTime() / 1000000d);
+    }
+
+}
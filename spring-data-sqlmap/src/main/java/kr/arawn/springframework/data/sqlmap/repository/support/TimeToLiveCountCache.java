@@ -0,0 +1,58 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.Assert;
+
+/**
+ * 저장된 시점부터 timeToLive(ms) 동안만 유효한 CountCache
+ */
+public class TimeToLiveCountCache implements CountCache {
+    
+    private final long timeToLive;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    
+    public TimeToLiveCountCache(long timeToLive) {
+        Assert.isTrue(timeToLive > 0, "timeToLive must be greater than 0");
+        this.timeToLive = timeToLive;
+    }
+
+    public Long get(String statementId) {
+        Entry entry = entries.get(statementId);
+        if(entry == null)
+            return null;
+        
+        if(entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(statementId, entry);
+            return null;
+        }
+        
+        return entry.count;
+    }
+
+    public void put(String statementId, Long count) {
+        entries.put(statementId, new Entry(count, System.currentTimeMillis() + timeToLive));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+    
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+    
+    private static class Entry {
+        
+        private final Long count;
+        private final long expiresAt;
+        
+        public Entry(Long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+        
+    }
+
+}
@@ -0,0 +1,202 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * 트랜잭션마다 하나씩 만들어지는 쓰기 대기열
+ * 
+ * 대기열은 이 객체를 key 로 트랜잭션에 bind 되고, 커밋 직전이나 flush() 를 호출하면 insert, update, delete 순으로
+ * {@link Flusher} 에게 넘겨진다. 트랜잭션 동기화가 활성화되어 있지 않으면 쓰기를 모으지 않는다.
+ */
+public class WriteBehindUnitOfWork {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindUnitOfWork.class);
+    
+    /**
+     * 모아둔 쓰기를 실행한다. 각 목록은 대기열에 들어온 순서를 따른다.
+     */
+    public interface Flusher {
+        
+        void flush(List<Object> inserts, List<Object> updates, List<Object> deletes);
+        
+    }
+    
+    private final Flusher flusher;
+    
+    public WriteBehindUnitOfWork(Flusher flusher) {
+        Assert.notNull(flusher);
+        this.flusher = flusher;
+    }
+    
+    /**
+     * 쓰기를 모을 수 있는지, 트랜잭션 동기화가 활성화되어 있어야 한다.
+     */
+    public boolean isActive() {
+        return TransactionSynchronizationManager.isSynchronizationActive();
+    }
+    
+    /**
+     * entity 를 저장 대기열에 넣는다. 같은 id 의 대기 중인 insert 는 insert 로, update 는 update 로 합쳐진다.
+     * id 가 없는 entity 는 같은 객체끼리만 합쳐진다.
+     */
+    public void save(Object id, Object entity, boolean isNew) {
+        Map<Object, PendingWrite> writes = getPendingWrites();
+        Object key = keyOf(id, entity);
+        
+        PendingWrite pending = writes.get(key);
+        if(pending != null && pending.operation == StatementOperation.DELETE) {
+            flush();
+            pending = null;
+        }
+        
+        StatementOperation operation = isNew ? StatementOperation.INSERT : StatementOperation.UPDATE;
+        if(pending != null) {
+            if(pending.operation == StatementOperation.INSERT)
+                operation = StatementOperation.INSERT;
+            logger.trace("{} [{}] 대기 중인 {} 와 합쳐집니다.", new Object[] { operation, key, pending.operation });
+        }
+        
+        writes.remove(key);
+        writes.put(key, new PendingWrite(operation, entity));
+    }
+    
+    /**
+     * entity 를 삭제 대기열에 넣는다. 아직 insert 되지 않은 entity 는 대기열에서 빼기만 한다.
+     */
+    public void delete(Object id, Object entity) {
+        Map<Object, PendingWrite> writes = getPendingWrites();
+        Object key = keyOf(id, entity);
+        
+        PendingWrite pending = writes.remove(key);
+        if(pending != null && pending.operation == StatementOperation.INSERT)
+            return;
+        
+        writes.put(key, new PendingWrite(StatementOperation.DELETE, entity));
+    }
+    
+    /**
+     * id 의 대기 중인 쓰기, 없으면 null
+     */
+    public PendingWrite getPendingWrite(Object id) {
+        Map<Object, PendingWrite> writes = getBoundWrites();
+        return writes == null || id == null ? null : writes.get(id);
+    }
+    
+    /**
+     * 대기열의 쓰기를 실행하고 비운다.
+     */
+    public void flush() {
+        Map<Object, PendingWrite> writes = getBoundWrites();
+        if(writes == null || writes.isEmpty())
+            return;
+        
+        List<Object> inserts = new ArrayList<Object>();
+        List<Object> updates = new ArrayList<Object>();
+        List<Object> deletes = new ArrayList<Object>();
+        for(PendingWrite pending : writes.values()) {
+            if(pending.operation == StatementOperation.INSERT)
+                inserts.add(pending.entity);
+            else if(pending.operation == StatementOperation.UPDATE)
+                updates.add(pending.entity);
+            else
+                deletes.add(pending.entity);
+        }
+        writes.clear();
+        
+        logger.debug("flush : {} inserts, {} updates, {} deletes", new Object[] { inserts.size(), updates.size(), deletes.size() });
+        flusher.flush(inserts, updates, deletes);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<Object, PendingWrite> getBoundWrites() {
+        return (Map<Object, PendingWrite>) TransactionSynchronizationManager.getResource(this);
+    }
+    
+    private Map<Object, PendingWrite> getPendingWrites() {
+        Assert.state(isActive(), "트랜잭션 동기화가 활성화되어 있지 않습니다.");
+        
+        Map<Object, PendingWrite> writes = getBoundWrites();
+        if(writes != null)
+            return writes;
+        
+        final Map<Object, PendingWrite> created = new LinkedHashMap<Object, PendingWrite>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(WriteBehindUnitOfWork.this);
+            }
+            
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(WriteBehindUnitOfWork.this, created);
+            }
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                flush();
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WriteBehindUnitOfWork.this);
+            }
+        });
+        
+        return created;
+    }
+    
+    private static Object keyOf(Object id, Object entity) {
+        return id != null ? id : new IdentityKey(entity);
+    }
+    
+    public static class PendingWrite {
+        
+        private final StatementOperation operation;
+        private final Object entity;
+        
+        PendingWrite(StatementOperation operation, Object entity) {
+            this.operation = operation;
+            this.entity = entity;
+        }
+        
+        public StatementOperation getOperation() {
+            return operation;
+        }
+        
+        public Object getEntity() {
+            return entity;
+        }
+        
+    }
+    
+    private static class IdentityKey {
+        
+        private final Object entity;
+        
+        IdentityKey(Object entity) {
+            this.entity = entity;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof IdentityKey && ((IdentityKey) obj).entity == entity;
+        }
+        
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(entity);
+        }
+        
+    }
+
+}
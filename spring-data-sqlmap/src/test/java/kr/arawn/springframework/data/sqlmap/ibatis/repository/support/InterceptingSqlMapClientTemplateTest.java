@@ -0,0 +1,145 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementExecution;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementInterceptor;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementOperation;
+
+import org.junit.Test;
+import org.springframework.orm.ibatis.SqlMapClientCallback;
+import org.springframework.orm.ibatis.SqlMapClientTemplate;
+
+import com.ibatis.sqlmap.client.SqlMapExecutor;
+
+public class InterceptingSqlMapClientTemplateTest {
+    
+    private StubSqlMapClientTemplate target = new StubSqlMapClientTemplate();
+    private InterceptingSqlMapClientTemplate template = new InterceptingSqlMapClientTemplate(target);
+    private List<String> calls = new ArrayList<String>();
+
+    @Test
+    public void 등록된_순서대로_감싸기() {
+        template.setInterceptors(Arrays.asList(new RecordingInterceptor("first"), new RecordingInterceptor("second")));
+        
+        List<?> result = template.queryForList("springSprout.findByName", "arawn");
+        
+        assertThat(result.size(), is(2));
+        assertThat(calls, is(Arrays.asList(
+                "first:before", "second:before", "second:after:SELECT:2", "first:after:SELECT:2")));
+    }
+    
+    @Test
+    public void parameter_바꾸기() {
+        template.setInterceptors(Arrays.asList(new StatementInterceptor() {
+            public Object intercept(StatementExecution execution) {
+                execution.setParameter("outsider");
+                return execution.proceed();
+            }
+        }));
+        
+        template.update("springSprout.update", "arawn");
+        
+        assertThat(target.lastParameter, is((Object) "outsider"));
+    }
+    
+    @Test
+    public void interceptor_가_없으면_바로_실행() {
+        template.setInterceptors(new ArrayList<StatementInterceptor>());
+        
+        assertThat(template.update("springSprout.update", "arawn"), is(1));
+        assertThat(target.lastParameter, is((Object) "arawn"));
+        assertThat(template.getInterceptors().length, is(0));
+    }
+    
+    @Test
+    public void batch_chunk_의_영향받은_row_수() {
+        final List<Integer> rows = new ArrayList<Integer>();
+        template.setInterceptors(Arrays.asList(new StatementInterceptor() {
+            public Object intercept(StatementExecution execution) {
+                Object result = execution.proceed();
+                rows.add(execution.getRows());
+                return result;
+            }
+        }));
+        
+        Integer result = template.executeBatch("springSprout.insert", StatementOperation.INSERT, 
+                Arrays.asList("arawn", "outsider", "keesun"), new SqlMapClientCallback<Integer>() {
+                    public Integer doInSqlMapClient(SqlMapExecutor executor) {
+                        return 3;
+                    }
+                });
+        
+        assertThat(result, is(3));
+        assertThat(rows, is(Arrays.asList(3)));
+    }
+    
+    @Test
+    public void count_조회는_한_row() {
+        template.setInterceptors(Arrays.asList(new RecordingInterceptor("count")));
+        
+        Object result = template.queryForObject("springSprout.count", null);
+        
+        assertThat(result, is((Object) 50000L));
+        assertThat(calls, is(Arrays.asList("count:before", "count:after:SELECT:1")));
+    }
+    
+    private class RecordingInterceptor implements StatementInterceptor {
+        
+        private final String name;
+        
+        public RecordingInterceptor(String name) {
+            this.name = name;
+        }
+        
+        public Object intercept(StatementExecution execution) {
+            calls.add(name + ":before");
+            Object result = execution.proceed();
+            calls.add(name + ":after:" + execution.getOperation() + ":" + execution.getRows());
+            assertThat(execution.getOperation(), is(StatementOperation.SELECT));
+            return result;
+        }
+        
+    }
+    
+    private static class StubSqlMapClientTemplate extends SqlMapClientTemplate {
+        
+        private Object lastParameter;
+        
+        @SuppressWarnings("rawtypes")
+        @Override
+        public List queryForList(String statementName, Object parameterObject) {
+            lastParameter = parameterObject;
+            return Arrays.asList("arawn", "outsider");
+        }
+        
+        @Override
+        public Object queryForObject(String statementName, Object parameterObject) {
+            lastParameter = parameterObject;
+            return 50000L;
+        }
+        
+        @Override
+        public <T> T execute(SqlMapClientCallback<T> action) {
+            try {
+                return action.doInSqlMapClient(null);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        @Override
+        public int update(String statementName, Object parameterObject) {
+            lastParameter = parameterObject;
+            return 1;
+        }
+        
+    }
+
+}
@@ -0,0 +1,51 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.Test;
+import org.springframework.orm.ibatis.SqlMapClientTemplate;
+
+public class PooledIdGeneratorTest {
+
+    @Test
+    public void sequence_값_하나로_allocationSize_만큼_할당() {
+        StubSqlMapClientTemplate template = new StubSqlMapClientTemplate(1L, 11L);
+        PooledIdGenerator generator = new PooledIdGenerator(template, "springSprout.nextId", 10);
+        
+        for(long expected = 1; expected <= 15; expected++) {
+            assertThat(generator.nextId(), is(expected));
+        }
+        assertThat(template.calls, is(2));
+    }
+    
+    @Test(expected=IllegalStateException.class)
+    public void sequence_증가폭이_작으면_실패() {
+        PooledIdGenerator generator = new PooledIdGenerator(new StubSqlMapClientTemplate(1L, 2L), "springSprout.nextId", 10);
+        
+        for(int i = 0; i < 11; i++) {
+            generator.nextId();
+        }
+    }
+    
+    private static class StubSqlMapClientTemplate extends SqlMapClientTemplate {
+        
+        private final Iterator<Long> values;
+        private int calls = 0;
+        
+        public StubSqlMapClientTemplate(Long... values) {
+            this.values = Arrays.asList(values).iterator();
+        }
+        
+        @Override
+        public Object queryForObject(String statementName) {
+            calls++;
+            return values.next();
+        }
+        
+    }
+
+}
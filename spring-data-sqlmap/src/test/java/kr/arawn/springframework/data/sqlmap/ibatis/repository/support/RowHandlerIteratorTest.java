@@ -0,0 +1,84 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.orm.ibatis.SqlMapClientTemplate;
+
+import com.ibatis.sqlmap.client.event.RowHandler;
+
+public class RowHandlerIteratorTest {
+
+    @Test
+    public void 버퍼보다_많은_결과를_모두_읽기() {
+        RowHandlerIterator<Integer> iterator = new RowHandlerIterator<Integer>(
+                new StubSqlMapClientTemplate(10), "springSprout.findAll", null, 2).start(new SimpleAsyncTaskExecutor());
+        
+        List<Integer> rows = new ArrayList<Integer>();
+        while(iterator.hasNext()) {
+            rows.add(iterator.next());
+        }
+        
+        assertThat(rows.size(), is(10));
+        assertThat(rows.get(9), is(9));
+    }
+    
+    @Test
+    public void 중간에_close_하면_조회를_멈춘다() throws Exception {
+        StubSqlMapClientTemplate template = new StubSqlMapClientTemplate(10);
+        RowHandlerIterator<Integer> iterator = new RowHandlerIterator<Integer>(
+                template, "springSprout.findAll", null, 1).start(new SimpleAsyncTaskExecutor());
+        
+        assertThat(iterator.next(), is(0));
+        iterator.close();
+        
+        assertTrue(template.finished.await(5, TimeUnit.SECONDS));
+        assertThat(iterator.hasNext(), is(false));
+    }
+    
+    @Test
+    public void 읽지_않고_버려두면_idleTimeout_뒤에_조회를_멈춘다() throws Exception {
+        StubSqlMapClientTemplate template = new StubSqlMapClientTemplate(10);
+        RowHandlerIterator<Integer> iterator = new RowHandlerIterator<Integer>(template, "springSprout.findAll", null, 1);
+        iterator.setIdleTimeout(200);
+        iterator.start(new SimpleAsyncTaskExecutor());
+        
+        assertTrue(template.finished.await(5, TimeUnit.SECONDS));
+        
+        try {
+            iterator.hasNext();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+    
+    private static class StubSqlMapClientTemplate extends SqlMapClientTemplate {
+        
+        private final int count;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        
+        public StubSqlMapClientTemplate(int count) {
+            this.count = count;
+        }
+        
+        @Override
+        public void queryWithRowHandler(String statementName, Object parameterObject, RowHandler rowHandler) {
+            try {
+                for(int i = 0; i < count; i++) {
+                    rowHandler.handleRow(i);
+                }
+            } finally {
+                finished.countDown();
+            }
+        }
+        
+    }
+    
+}
@@ -0,0 +1,127 @@
+package kr.arawn.springframework.data.sqlmap.ibatis.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.factory.SqlmapClientRepositoryFactory;
+
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.orm.ibatis.SqlMapClientTemplate;
+
+import com.ibatis.sqlmap.client.event.RowHandler;
+
+public class RowHandlerPublisherTest {
+
+    @Test
+    public void 요청한_만큼만_넘기기() throws Exception {
+        RowHandlerPublisher<Integer> publisher = new RowHandlerPublisher<Integer>(
+                new StubSqlMapClientTemplate(5), "springSprout.findAll", null, new SimpleAsyncTaskExecutor());
+        
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        
+        subscriber.subscription.request(2);
+        Thread.sleep(200);
+        assertThat(subscriber.rows.size(), is(2));
+        assertThat(subscriber.completed.getCount(), is(1L));
+        
+        subscriber.subscription.request(3);
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertThat(subscriber.rows.size(), is(5));
+        assertThat(subscriber.error, is(nullValue()));
+    }
+    
+    @Test
+    public void 취소하면_조회를_멈춘다() throws Exception {
+        StubSqlMapClientTemplate template = new StubSqlMapClientTemplate(5);
+        RowHandlerPublisher<Integer> publisher = new RowHandlerPublisher<Integer>(
+                template, "springSprout.findAll", null, new SimpleAsyncTaskExecutor());
+        
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        
+        subscriber.subscription.request(1);
+        Thread.sleep(200);
+        subscriber.subscription.cancel();
+        
+        assertTrue(template.finished.await(5, TimeUnit.SECONDS));
+        assertThat(subscriber.rows.size(), is(1));
+        assertThat(subscriber.completed.getCount(), is(1L));
+        assertThat(subscriber.error, is(nullValue()));
+    }
+    
+    @Test
+    public void 쓰레드가_모두_사용_중이면_실패() throws Exception {
+        TaskExecutor executor = SqlmapClientRepositoryFactory.createStreamingExecutor(1);
+        
+        TestSubscriber first = new TestSubscriber();
+        new RowHandlerPublisher<Integer>(new StubSqlMapClientTemplate(5), "springSprout.findAll", null, executor).subscribe(first);
+        first.subscription.request(1);
+        Thread.sleep(200);
+        
+        TestSubscriber second = new TestSubscriber();
+        new RowHandlerPublisher<Integer>(new StubSqlMapClientTemplate(5), "springSprout.findAll", null, executor).subscribe(second);
+        second.subscription.request(1);
+        assertTrue(second.error instanceof TaskRejectedException);
+        
+        first.subscription.cancel();
+    }
+    
+    private static class TestSubscriber implements Subscriber<Integer> {
+        
+        private final List<Integer> rows = new CopyOnWriteArrayList<Integer>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Subscription subscription;
+        private volatile Throwable error;
+        
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+        
+        public void onNext(Integer row) {
+            rows.add(row);
+        }
+        
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+        
+        public void onComplete() {
+            completed.countDown();
+        }
+        
+    }
+    
+    private static class StubSqlMapClientTemplate extends SqlMapClientTemplate {
+        
+        private final int count;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        
+        public StubSqlMapClientTemplate(int count) {
+            this.count = count;
+        }
+        
+        @Override
+        public void queryWithRowHandler(String statementName, Object parameterObject, RowHandler rowHandler) {
+            try {
+                for(int i = 0; i < count; i++) {
+                    rowHandler.handleRow(i);
+                }
+            } finally {
+                finished.countDown();
+            }
+        }
+        
+    }
+    
+}
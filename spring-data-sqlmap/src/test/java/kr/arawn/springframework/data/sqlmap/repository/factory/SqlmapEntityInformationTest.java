@@ -0,0 +1,59 @@
+package kr.arawn.springframework.data.sqlmap.repository.factory;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import kr.arawn.springframework.data.sqlmap.repository.EntityId;
+import kr.arawn.springframework.data.sqlmap.repository.sample.SpringSprout;
+
+import org.junit.Test;
+
+public class SqlmapEntityInformationTest {
+
+    @Test
+    public void 접근자가_있으면_생성된_class_로_id_읽고_쓰기() throws Exception {
+        IdAccessor accessor = IdAccessorGenerator.create(SpringSprout.class, SpringSprout.class.getDeclaredField("id"));
+        assertThat(accessor instanceof ReflectionIdAccessor, is(false));
+        
+        SpringSprout springSprout = new SpringSprout("동욱", "ldw");
+        accessor.setId(springSprout, 1L);
+        
+        assertThat(springSprout.getId(), is(1L));
+        assertThat(accessor.getId(springSprout), is((Object) 1L));
+    }
+    
+    @Test
+    public void 같은_entity_class_는_접근자를_다시_만들지_않는다() throws Exception {
+        IdAccessor accessor = IdAccessorGenerator.create(SpringSprout.class, SpringSprout.class.getDeclaredField("id"));
+        
+        assertThat(IdAccessorGenerator.create(SpringSprout.class, SpringSprout.class.getDeclaredField("id")), is(sameInstance(accessor)));
+    }
+    
+    @Test
+    public void EntityId_로_선언한_복합키() {
+        SqlmapEntityInformation<Membership, MembershipKey> entityInformation = 
+                new SqlmapEntityInformation<Membership, MembershipKey>(Membership.class);
+        Membership membership = new Membership();
+        
+        assertThat(entityInformation.isNew(membership), is(true));
+        assertThat(entityInformation.getIdType() == MembershipKey.class, is(true));
+        
+        MembershipKey key = new MembershipKey();
+        entityInformation.setId(membership, key);
+        
+        assertThat(entityInformation.getId(membership), is(key));
+    }
+    
+    static class Membership {
+        
+        @EntityId
+        private MembershipKey key;
+        
+    }
+    
+    @SuppressWarnings("serial")
+    static class MembershipKey implements java.io.Serializable {
+        
+    }
+
+}
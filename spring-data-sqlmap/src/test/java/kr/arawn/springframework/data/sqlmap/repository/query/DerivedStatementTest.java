@@ -0,0 +1,42 @@
+package kr.arawn.springframework.data.sqlmap.repository.query;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import kr.arawn.springframework.data.sqlmap.repository.sample.SpringSprout;
+
+import org.junit.Test;
+
+public class DerivedStatementTest {
+
+    @Test
+    public void 메소드_이름으로_SQL_만들기() {
+        DerivedStatement statement = DerivedStatement.create("findByNameAndNickName", SpringSprout.class);
+        
+        assertThat(statement.getSql(), is("SELECT * FROM SPRINGSPROUT WHERE NAME = ? AND NICKNAME = ?"));
+        assertThat(statement.getParameterCount(), is(2));
+        assertThat(statement.isCountQuery(), is(false));
+    }
+    
+    @Test
+    public void 조건과_정렬() {
+        DerivedStatement statement = DerivedStatement.create("findByNameLikeOrNickNameIsNotNullOrderByNameDescIdAsc", SpringSprout.class);
+        
+        assertThat(statement.getSql(), is("SELECT * FROM SPRINGSPROUT WHERE NAME LIKE ? OR NICKNAME IS NOT NULL ORDER BY NAME DESC, ID ASC"));
+        assertThat(statement.getParameterCount(), is(1));
+    }
+    
+    @Test
+    public void count_메소드() {
+        DerivedStatement statement = DerivedStatement.create("countByIdGreaterThanEqual", SpringSprout.class);
+        
+        assertThat(statement.getSql(), is("SELECT COUNT(*) FROM SPRINGSPROUT WHERE ID >= ?"));
+        assertThat(statement.isCountQuery(), is(true));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void 없는_property() {
+        DerivedStatement.create("findByAge", SpringSprout.class);
+    }
+    
+}
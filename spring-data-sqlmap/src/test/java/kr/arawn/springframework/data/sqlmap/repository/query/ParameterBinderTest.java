@@ -0,0 +1,98 @@
+package kr.arawn.springframework.data.sqlmap.repository.query;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import kr.arawn.springframework.data.sqlmap.repository.sample.SpringSprout;
+import kr.arawn.springframework.data.sqlmap.repository.statement.Param;
+
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+public class ParameterBinderTest {
+
+    @Test
+    public void 인자가_하나면_그대로_넘기기() throws Exception {
+        ParameterBinder binder = ParameterBinder.create(method("findByName", String.class));
+        
+        assertThat(binder.bind(new Object[] { "동욱" }), is((Object) "동욱"));
+    }
+    
+    @Test
+    public void Param_이_있으면_이름을_키로() throws Exception {
+        ParameterBinder binder = ParameterBinder.create(method("findByNameAndNickName", String.class, String.class));
+        
+        Map<String, Object> parameter = bind(binder, "동욱", "ldw");
+        assertThat(parameter.get("name"), is((Object) "동욱"));
+        assertThat(parameter.get("nickName"), is((Object) "ldw"));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void 인자가_여러개면_Param_이_필요() throws Exception {
+        ParameterBinder.create(method("findByNickNameOrName", String.class, String.class));
+    }
+    
+    @Test
+    public void Pageable_과_함께_넘어온_인자는_value_키로() throws Exception {
+        ParameterBinder binder = ParameterBinder.create(method("findByName", String.class, Pageable.class));
+        
+        Map<String, Object> parameter = bind(binder, "동욱", new PageRequest(2, 10));
+        assertThat(parameter.get(ParameterBinder.VALUE), is((Object) "동욱"));
+        assertThat(parameter.get(ParameterBinder.OFFSET), is((Object) 20));
+        assertThat(parameter.get(ParameterBinder.PAGE_SIZE), is((Object) 10));
+    }
+    
+    @Test
+    public void Sort_와_함께_넘어온_bean_은_property_도_넣기() throws Exception {
+        ParameterBinder binder = ParameterBinder.create(method("findBySample", SpringSprout.class, Sort.class));
+        
+        SpringSprout sample = new SpringSprout("동욱", "ldw");
+        Map<String, Object> parameter = bind(binder, sample, new Sort("name"));
+        assertThat(parameter.get(ParameterBinder.VALUE), is((Object) sample));
+        assertThat(parameter.get("name"), is((Object) "동욱"));
+        assertThat(parameter.get("nickName"), is((Object) "ldw"));
+        assertThat(((List<?>) parameter.get(ParameterBinder.ORDERS)).size(), is(1));
+    }
+    
+    @Test
+    public void Pageable_과_함께_넘어온_Map_은_entry_도_넣기() throws Exception {
+        ParameterBinder binder = ParameterBinder.create(method("findByConditions", Map.class, Pageable.class));
+        
+        Map<String, Object> parameter = bind(binder, Collections.singletonMap("name", "동욱"), new PageRequest(0, 10));
+        assertThat(parameter.get("name"), is((Object) "동욱"));
+        assertThat(parameter.get(ParameterBinder.PAGE_SIZE), is((Object) 10));
+    }
+    
+    private Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return SampleRepository.class.getMethod(name, parameterTypes);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> bind(ParameterBinder binder, Object... parameters) {
+        return (Map<String, Object>) binder.bind(parameters);
+    }
+    
+    interface SampleRepository {
+        
+        List<SpringSprout> findByName(String name);
+        
+        List<SpringSprout> findByNameAndNickName(@Param("name") String name, @Param("nickName") String nickName);
+        
+        List<SpringSprout> findByNickNameOrName(String nickName, String name);
+        
+        List<SpringSprout> findByName(String name, Pageable pageable);
+        
+        List<SpringSprout> findBySample(SpringSprout sample, Sort sort);
+        
+        List<SpringSprout> findByConditions(Map<String, Object> conditions, Pageable pageable);
+        
+    }
+
+}
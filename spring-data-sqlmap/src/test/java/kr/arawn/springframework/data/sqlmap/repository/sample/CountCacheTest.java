@@ -0,0 +1,87 @@
+package kr.arawn.springframework.data.sqlmap.repository.sample;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.DefaultSqlmapClientRepository;
+import kr.arawn.springframework.data.sqlmap.repository.support.CountCache;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * count-cache-ttl 을 설정했을 때 저장, 삭제 후에 이전 전체 건수를 반환하지 않는지 확인한다.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration
+public class CountCacheTest {
+    
+    private static final String COUNT = "springSprout.count";
+    
+    @Autowired SpringSproutRepository repository;
+    @Autowired PlatformTransactionManager transactionManager;
+    
+    @Test
+    public void 저장_삭제_후에_전체_건수_갱신() throws Exception {
+        CountCache countCache = getCountCache();
+        long before = repository.count();
+        assertThat(countCache.get(COUNT), is(before));
+        
+        SpringSprout first = repository.save(new SpringSprout("동욱", "ldw"));
+        SpringSprout second = null;
+        try {
+            assertThat(countCache.get(COUNT), is(nullValue()));
+            assertThat(repository.findAll(new PageRequest(0, 1)).getTotalElements(), is(before + 1));
+            
+            second = repository.save(new SpringSprout("기선", "whiteship"));
+            assertThat(repository.findAll(new PageRequest(0, 1)).getTotalElements(), is(before + 2));
+        } finally {
+            repository.delete(first);
+            if(second != null)
+                repository.delete(second);
+        }
+        
+        assertThat(repository.findAll(new PageRequest(0, 1)).getTotalElements(), is(before));
+        assertThat(repository.count(), is(before));
+    }
+    
+    @Test
+    public void 쓰기_트랜잭션에서_읽은_건수는_캐시하지_않음() throws Exception {
+        final CountCache countCache = getCountCache();
+        countCache.clear();
+        
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long cached = transactionTemplate.execute(new TransactionCallback<Long>() {
+            public Long doInTransaction(TransactionStatus status) {
+                repository.save(new SpringSprout("동욱", "ldw"));
+                repository.count();
+                status.setRollbackOnly();
+                return countCache.get(COUNT);
+            }
+        });
+        assertThat(cached, is(nullValue()));
+        
+        transactionTemplate.setReadOnly(true);
+        cached = transactionTemplate.execute(new TransactionCallback<Long>() {
+            public Long doInTransaction(TransactionStatus status) {
+                return repository.count();
+            }
+        });
+        assertThat(countCache.get(COUNT), is(cached));
+    }
+    
+    private CountCache getCountCache() throws Exception {
+        Object target = ((Advised) repository).getTargetSource().getTarget();
+        return ((DefaultSqlmapClientRepository<?, ?>) target).getContext().getCountCache();
+    }
+
+}
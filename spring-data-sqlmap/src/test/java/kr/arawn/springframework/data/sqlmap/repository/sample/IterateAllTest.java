@@ -0,0 +1,106 @@
+package kr.arawn.springframework.data.sqlmap.repository.sample;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.RowHandlerIterator;
+import kr.arawn.springframework.data.sqlmap.repository.CloseableIterator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * iterateAll() 은 별도의 커넥션에서 조회하므로 트랜잭션 없이 저장한 뒤 조회한다.
+ * streaming 쓰레드는 1개로 제한되어 있다.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration
+public class IterateAllTest {
+    
+    // 버퍼보다 많아야 읽는 쪽이 멈추지 않고 쓰레드를 계속 붙잡는다.
+    private static final int ROWS = RowHandlerIterator.DEFAULT_BUFFER_SIZE + 50;
+    
+    @Autowired SpringSproutRepository repository;
+    
+    private List<SpringSprout> springSprouts;
+    
+    @Before
+    public void setUp() {
+        springSprouts = new ArrayList<SpringSprout>();
+        for(int i = 0; i < ROWS; i++) {
+            springSprouts.add(new SpringSprout("동욱" + i, "ldw" + i));
+        }
+        repository.save(springSprouts);
+    }
+    
+    @After
+    public void tearDown() {
+        repository.delete(springSprouts);
+    }
+    
+    @Test
+    public void 전체_조회() throws Exception {
+        CloseableIterator<SpringSprout> iterator = iterateAllWhenReleased(5000);
+        
+        Set<Long> ids = new HashSet<Long>();
+        try {
+            while(iterator.hasNext()) {
+                ids.add(iterator.next().getId());
+            }
+        } finally {
+            iterator.close();
+        }
+        
+        for(SpringSprout springSprout : springSprouts) {
+            assertTrue(ids.contains(springSprout.getId()));
+        }
+    }
+    
+    @Test
+    public void 중간에_close_하면_쓰레드_반환() throws Exception {
+        CloseableIterator<SpringSprout> iterator = iterateAllWhenReleased(5000);
+        assertThat(iterator.next(), is(notNullValue()));
+        iterator.close();
+        
+        CloseableIterator<SpringSprout> next = iterateAllWhenReleased(5000);
+        int count = 0;
+        try {
+            while(next.hasNext()) {
+                next.next();
+                count++;
+            }
+        } finally {
+            next.close();
+        }
+        
+        assertTrue(count >= ROWS);
+    }
+    
+    /**
+     * 이전 조회의 쓰레드가 반환될 때까지 기다린다.
+     */
+    private CloseableIterator<SpringSprout> iterateAllWhenReleased(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        while(true) {
+            try {
+                return repository.iterateAll();
+            } catch (TaskRejectedException e) {
+                if(System.currentTimeMillis() > deadline)
+                    throw e;
+                Thread.sleep(50);
+            }
+        }
+    }
+
+}
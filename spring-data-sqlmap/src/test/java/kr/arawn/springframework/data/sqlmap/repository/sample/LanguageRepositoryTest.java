@@ -0,0 +1,59 @@
+package kr.arawn.springframework.data.sqlmap.repository.sample;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.transaction.TransactionConfiguration;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * insert 후에 selectKey 로 IDENTITY 값을 읽는 mapping 은 JDBC batch 로 실행할 수 없으므로 한 건씩 실행된다.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration
+@TransactionConfiguration
+@Transactional
+public class LanguageRepositoryTest {
+    
+    @Autowired LanguageRepository repository;
+    
+    @Test
+    public void 등록하면_IDENTITY_로_만든_id_기록() {
+        Language language = repository.save(language("Java"));
+        
+        assertThat(language.getId(), is(notNullValue()));
+        assertThat(repository.findOne(language.getId()).getName(), is("Java"));
+    }
+    
+    @Test
+    public void 일괄_등록하면_IDENTITY_로_만든_id_기록() {
+        List<Language> languages = repository.save(Arrays.asList(language("Java"), language("Scala"), language("Groovy")));
+        
+        Set<Long> ids = new HashSet<Long>();
+        for(Language language : languages) {
+            assertThat(language.getId(), is(notNullValue()));
+            assertThat(repository.findOne(language.getId()).getName(), is(language.getName()));
+            ids.add(language.getId());
+        }
+        
+        assertThat(ids.size(), is(3));
+        assertThat(repository.count(), is(3L));
+    }
+    
+    private Language language(String name) {
+        Language language = new Language();
+        language.setName(name);
+        return language;
+    }
+
+}
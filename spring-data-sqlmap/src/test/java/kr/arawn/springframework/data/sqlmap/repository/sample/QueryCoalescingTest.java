@@ -0,0 +1,91 @@
+package kr.arawn.springframework.data.sqlmap.repository.sample;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.DefaultSqlmapClientRepository;
+import kr.arawn.springframework.data.sqlmap.repository.support.InFlightQueryCoalescer;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementExecution;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementInterceptor;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration
+public class QueryCoalescingTest {
+    
+    private static final int THREADS = 5;
+    
+    @Autowired SpringSproutRepository repository;
+    
+    @Test
+    public void 읽기_전용_트랜잭션에서_동시에_실행된_findOne_합치기() throws Exception {
+        final SpringSprout springSprout = repository.save(new SpringSprout("동욱", "ldw"));
+        try {
+            InFlightQueryCoalescer coalescer = getCoalescer();
+            long executionCount = coalescer.getExecutionCount();
+            
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<SpringSprout> results = new CopyOnWriteArrayList<SpringSprout>();
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            for(int i = 0; i < THREADS; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        results.add(repository.findOne(springSprout.getId()));
+                    }
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            assertThat(results.size(), is(THREADS));
+            assertThat(results.get(0).getNickName(), is("ldw"));
+            assertThat(coalescer.getExecutionCount() - executionCount, is(1L));
+        } finally {
+            repository.delete(springSprout);
+        }
+    }
+    
+    private InFlightQueryCoalescer getCoalescer() throws Exception {
+        Object target = ((Advised) repository).getTargetSource().getTarget();
+        return ((DefaultSqlmapClientRepository<?, ?>) target).getContext().getInFlightQueryCoalescer();
+    }
+    
+    /**
+     * 다른 쓰레드들이 같은 조회에 들어올 수 있도록 findOne 을 느리게 만든다.
+     */
+    public static class SlowFindOneInterceptor implements StatementInterceptor {
+        
+        public Object intercept(StatementExecution execution) {
+            if(execution.getStatementId().endsWith(".findOne")) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return execution.proceed();
+        }
+        
+    }
+
+}
@@ -0,0 +1,89 @@
+package kr.arawn.springframework.data.sqlmap.repository.sample;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import kr.arawn.springframework.data.sqlmap.ibatis.repository.support.SlowStatementLogger;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.transaction.TransactionConfiguration;
+import org.springframework.transaction.annotation.Transactional;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration
+@TransactionConfiguration
+@Transactional
+public class SlowStatementLoggingTest {
+    
+    @Autowired SpringSproutRepository repository;
+    
+    private RecordingAppender appender = new RecordingAppender();
+    
+    @Before
+    public void appender_등록() {
+        Logger.getLogger(SlowStatementLogger.class).addAppender(appender);
+    }
+    
+    @After
+    public void appender_제거() {
+        Logger.getLogger(SlowStatementLogger.class).removeAppender(appender);
+    }
+    
+    @Test
+    public void threshold_가_0_이면_모든_statement_를_실행_계획과_함께_남긴다() {
+        repository.save(new SpringSprout("동욱", "ldw"));
+        
+        assertThat(repository.countByName("동욱", "secret-token"), is(1L));
+        
+        String entry = appender.find("slow statement springSprout.findPageByName_count ");
+        assertThat(entry, is(notNullValue()));
+        assertTrue(entry, entry.contains("(SpringSproutRepository.countByName)"));
+        assertTrue(entry, entry.contains(", 1 rows, "));
+        assertTrue(entry, entry.contains("name='동욱'"));
+        assertTrue(entry, entry.contains("accessToken=****"));
+        assertFalse(entry, entry.contains("secret-token"));
+        
+        String plan = entry.substring(entry.indexOf('\n') + 1);
+        assertTrue(entry, entry.indexOf('\n') > 0 && plan.length() > 0);
+        assertFalse(entry, plan.startsWith("실행 계획을 조회하지 못했습니다."));
+    }
+    
+    private static class RecordingAppender extends AppenderSkeleton {
+        
+        private final List<String> messages = new CopyOnWriteArrayList<String>();
+        
+        public String find(String prefix) {
+            for(String message : messages) {
+                if(message.startsWith(prefix))
+                    return message;
+            }
+            return null;
+        }
+        
+        @Override
+        protected void append(LoggingEvent event) {
+            messages.add(event.getRenderedMessage());
+        }
+        
+        public boolean requiresLayout() {
+            return false;
+        }
+        
+        public void close() {
+        }
+        
+    }
+
+}
@@ -1,14 +1,37 @@
 package kr.arawn.springframework.data.sqlmap.repository.sample;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
+import kr.arawn.springframework.data.sqlmap.repository.DirtyTracking;
+import kr.arawn.springframework.data.sqlmap.repository.IdAllocation;
 import kr.arawn.springframework.data.sqlmap.repository.SqlmapRepository;
+import kr.arawn.springframework.data.sqlmap.repository.statement.Param;
 import kr.arawn.springframework.data.sqlmap.repository.statement.Statement;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+@IdAllocation(allocationSize = 10)
+@DirtyTracking
 public interface SpringSproutRepository extends SqlmapRepository<SpringSprout, Long> {
 
     List<SpringSprout> findByName(String name);
     
+    List<SpringSprout> findByNameAndNickName(String name, String nickName);
+    
+    List<SpringSprout> findByNameStartsWith(@Param("name") String name, Pageable pageable);
+    
+    Page<SpringSprout> findPageByName(@Param("name") String name, Pageable pageable);
+    
+    long countByNickNameLike(String nickName);
+    
+    @Statement(id="springSprout.findPageByName_count")
+    long countByName(@Param("name") String name, @Param("accessToken") String accessToken);
+    
+    @Statement(id="springSprout.findByName")
+    Future<List<SpringSprout>> findByNameAsync(String name);
+    
     @Statement(id="springSprout.selectSpringSprout")
     List<SpringSprout> findByCondition(SpringSproutCondition condition);
     
@@ -3,18 +3,36 @@ package kr.arawn.springframework.data.sqlmap.repository.sample;
 import static org.junit.Assert.*;
 import static org.hamcrest.CoreMatchers.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import kr.arawn.springframework.data.sqlmap.repository.Keyset;
+import kr.arawn.springframework.data.sqlmap.repository.RowCallback;
+import kr.arawn.springframework.data.sqlmap.repository.Slice;
+import kr.arawn.springframework.data.sqlmap.repository.factory.SqlmapEntityInformation;
+import kr.arawn.springframework.data.sqlmap.repository.support.FindOneBatchLoader;
+import kr.arawn.springframework.data.sqlmap.repository.support.RepositoryOperationEvent;
+import kr.arawn.springframework.data.sqlmap.repository.support.RepositoryOperationEvents;
+import kr.arawn.springframework.data.sqlmap.repository.support.RepositoryOperationListener;
+import kr.arawn.springframework.data.sqlmap.repository.support.StatementOperation;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.transaction.TransactionConfiguration;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -24,6 +42,8 @@ import org.springframework.transaction.annotation.Transactional;
 public class SpringSproutRepositoryTest {
     
     @Autowired SpringSproutRepository repository;
+    @Autowired WriteBehindSpringSproutRepository writeBehindRepository;
+    @Autowired RepositoryOperationEvents operationEvents;
     
     SpringSprout firstSpringSprout, secondSpringSprout, thirdSpringSprout;
     
@@ -45,6 +65,32 @@ public class SpringSproutRepositoryTest {
         assertThat(thirdSpringSprout.getId(), is(notNullValue()));
     }
     
+    @Test
+    public void 일괄_등록_수정() {
+        List<SpringSprout> springSprouts = repository.save(Arrays.asList(firstSpringSprout, secondSpringSprout, thirdSpringSprout));
+        
+        for(SpringSprout sprout : springSprouts) {
+            assertThat(sprout.getId(), is(notNullValue()));
+            sprout.setNickName(sprout.getNickName() + "-modified");
+        }
+        
+        repository.save(springSprouts);
+        
+        assertThat(repository.findOne(firstSpringSprout.getId()).getNickName(), is("ldw-modified"));
+        assertThat(repository.findOne(thirdSpringSprout.getId()).getNickName(), is("jyh-modified"));
+    }
+    
+    @Test
+    public void 일괄_삭제() {
+        repository.save(Arrays.asList(firstSpringSprout, secondSpringSprout, thirdSpringSprout));
+        
+        repository.delete(Arrays.asList(firstSpringSprout, secondSpringSprout));
+        
+        List<SpringSprout> springSprouts = repository.findAll();
+        assertThat(springSprouts.size(), is(1));
+        assertThat(springSprouts.get(0).getId(), is(thirdSpringSprout.getId()));
+    }
+    
     @Test
     public void 하나_가져오기() {
         repository.save(firstSpringSprout);
@@ -55,6 +101,49 @@ public class SpringSproutRepositoryTest {
         assertThat(sprout.getName(), is(firstSpringSprout.getName()));
     }
     
+    @Test
+    public void 존재_여부_확인() {
+        repository.save(Arrays.asList(firstSpringSprout, secondSpringSprout));
+        
+        assertThat(repository.exists(firstSpringSprout.getId()), is(true));
+        assertThat(repository.exists(-1L), is(false));
+        
+        Set<Long> ids = repository.existsAll(Arrays.asList(firstSpringSprout.getId(), -1L, secondSpringSprout.getId()));
+        assertThat(ids.size(), is(2));
+        assertThat(ids.contains(firstSpringSprout.getId()), is(true));
+        assertThat(ids.contains(-1L), is(false));
+    }
+    
+    @Test
+    public void 여러_id로_가져오기() {
+        repository.save(Arrays.asList(firstSpringSprout, secondSpringSprout, thirdSpringSprout));
+        
+        List<SpringSprout> springSprouts = repository.findAll(
+                Arrays.asList(thirdSpringSprout.getId(), -1L, firstSpringSprout.getId()));
+        
+        assertThat(springSprouts.size(), is(2));
+        assertThat(springSprouts.get(0).getId(), is(thirdSpringSprout.getId()));
+        assertThat(springSprouts.get(1).getId(), is(firstSpringSprout.getId()));
+    }
+    
+    @Test
+    public void 모아서_한번에_가져오기() throws Exception {
+        repository.save(Arrays.asList(firstSpringSprout, secondSpringSprout, thirdSpringSprout));
+        
+        FindOneBatchLoader<SpringSprout, Long> loader = new FindOneBatchLoader<SpringSprout, Long>(
+                repository, new SqlmapEntityInformation<SpringSprout, Long>(SpringSprout.class));
+        Future<SpringSprout> first = loader.load(firstSpringSprout.getId());
+        Future<SpringSprout> notFound = loader.load(-1L);
+        Future<SpringSprout> third = loader.load(thirdSpringSprout.getId());
+        
+        assertThat(loader.getPendingCount(), is(3));
+        assertThat(first.get().getName(), is("동욱"));
+        assertThat(loader.getPendingCount(), is(0));
+        assertThat(notFound.isDone(), is(true));
+        assertThat(notFound.get(), is(nullValue()));
+        assertThat(third.get().getName(), is("연희"));
+    }
+    
     @Test
     public void 이름으로_검색하기() {
         repository.save(firstSpringSprout);
@@ -63,6 +152,73 @@ public class SpringSproutRepositoryTest {
         assertThat(springSprouts.size(), is(1));
     }
     
+    @Test
+    public void 메소드_이름으로_검색하기() {
+        repository.save(Arrays.asList(firstSpringSprout, secondSpringSprout, thirdSpringSprout));
+        
+        List<SpringSprout> springSprouts = repository.findByNameAndNickName("기선", "bks");
+        assertThat(springSprouts.size(), is(1));
+        assertThat(springSprouts.get(0).getId(), is(secondSpringSprout.getId()));
+        
+        assertThat(repository.findByNameAndNickName("기선", "ldw").size(), is(0));
+        assertThat(repository.countByNickNameLike("%s"), is(1L));
+    }
+    
+    @Test
+    public void 여러_parameter_로_검색하기() {
+        repository.save(Arrays.asList(firstSpringSprout, secondSpringSprout, thirdSpringSprout));
+        
+        List<SpringSprout> firstPage = repository.findByNameStartsWith("", new PageRequest(0, 2));
+        assertThat(firstPage.size(), is(2));
+        assertThat(firstPage.get(0).getId(), is(firstSpringSprout.getId()));
+        
+        List<SpringSprout> secondPage = repository.findByNameStartsWith("", new PageRequest(1, 2));
+        assertThat(secondPage.size(), is(1));
+        assertThat(secondPage.get(0).getId(), is(thirdSpringSprout.getId()));
+    }
+    
+    @Test
+    public void 선언된_statement_로_페이지_조회() {
+        repository.save(Arrays.asList(firstSpringSprout, secondSpringSprout, thirdSpringSprout));
+        
+        Page<SpringSprout> firstPage = repository.findPageByName("", new PageRequest(0, 2));
+        assertThat(firstPage.getNumberOfElements(), is(2));
+        assertThat(firstPage.getTotalElements(), is(3L));
+        
+        Page<SpringSprout> lastPage = repository.findPageByName("", new PageRequest(1, 2));
+        assertThat(lastPage.getNumberOfElements(), is(1));
+        assertThat(lastPage.getTotalElements(), is(3L));
+    }
+    
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 비동기_조회() throws Exception {
+        repository.save(firstSpringSprout);
+        
+        final List<String> threadNames = new CopyOnWriteArrayList<String>();
+        RepositoryOperationListener listener = new RepositoryOperationListener() {
+            public void onOperation(RepositoryOperationEvent event) {
+                if(event.getOperation() == StatementOperation.SELECT)
+                    threadNames.add(event.getThreadName());
+            }
+        };
+        
+        operationEvents.addListener(listener);
+        try {
+            // 다른 쓰레드에서 실행되므로 커밋된 데이터만 보인다.
+            assertThat(repository.findOneAsync(firstSpringSprout.getId()).get(5, TimeUnit.SECONDS).getNickName(), is("ldw"));
+            assertThat(repository.findByNameAsync("동욱").get(5, TimeUnit.SECONDS).size(), is(1));
+        } finally {
+            operationEvents.removeListener(listener);
+            repository.delete(firstSpringSprout);
+        }
+        
+        assertThat(threadNames.size(), is(2));
+        for(String threadName : threadNames) {
+            assertTrue(threadName, threadName.startsWith("sqlmap-async-"));
+        }
+    }
+    
     @Test
     public void 전체_조회() {
         repository.save(firstSpringSprout);
@@ -73,6 +229,22 @@ public class SpringSproutRepositoryTest {
         assertThat(springSprouts.size(), is(3));
     }
     
+    @Test
+    public void 한건씩_전체_조회() {
+        repository.save(firstSpringSprout);
+        repository.save(secondSpringSprout);
+        repository.save(thirdSpringSprout);
+        
+        final List<String> names = new ArrayList<String>();
+        repository.findAll(new RowCallback<SpringSprout>() {
+            public void processRow(SpringSprout row) {
+                names.add(row.getName());
+            }
+        });
+        
+        assertThat(names.size(), is(3));
+    }
+    
     @Test
     public void 정렬_조회() {
         repository.save(firstSpringSprout);
@@ -97,6 +269,28 @@ public class SpringSproutRepositoryTest {
         
         Page<SpringSprout> page = repository.findAll(condition);
         assertThat(page, is(notNullValue()));
+        assertThat(page.getNumberOfElements(), is(5));
+        assertThat(page.getTotalElements(), is(30L));
+    }
+    
+    @Test
+    public void Keyset_페이지_조회() {
+        for(int idx=1; idx<=12; idx++) {
+            repository.save(new SpringSprout("Keyset", String.valueOf(idx)));
+        }
+        
+        Slice<SpringSprout> first = repository.findAll(new Keyset(5));
+        assertThat(first.getNumberOfElements(), is(5));
+        assertThat(first.hasNext(), is(true));
+        
+        Slice<SpringSprout> second = repository.findAll(first.nextKeyset());
+        assertThat(second.getNumberOfElements(), is(5));
+        assertThat(second.getContent().get(0).getId() > (Long) first.getCursor(), is(true));
+        
+        Slice<SpringSprout> last = repository.findAll(second.nextKeyset());
+        assertThat(last.getNumberOfElements(), is(2));
+        assertThat(last.hasNext(), is(false));
+        assertThat(last.nextKeyset(), is(nullValue()));
     }
     
     @Test
@@ -110,5 +304,95 @@ public class SpringSproutRepositoryTest {
         List<SpringSprout> springSprouts = repository.findByCondition(condition);
         assertThat(springSprouts, is(notNullValue()));
     }
+    
+    @Test
+    public void 실행된_statement_의_event_받기() {
+        final List<RepositoryOperationEvent> events = new ArrayList<RepositoryOperationEvent>();
+        RepositoryOperationListener listener = new RepositoryOperationListener() {
+            public void onOperation(RepositoryOperationEvent event) {
+                events.add(event);
+            }
+        };
+        
+        operationEvents.addListener(listener);
+        List<SpringSprout> springSprouts;
+        try {
+            repository.save(firstSpringSprout);
+            springSprouts = repository.findAll();
+        } finally {
+            operationEvents.removeListener(listener);
+        }
+        
+        RepositoryOperationEvent event = events.get(events.size() - 1);
+        assertThat(event.getStatementId(), is("springSprout.findAll"));
+        assertThat(event.getOperation(), is(StatementOperation.SELECT));
+        assertThat(event.getRepositoryInterface().getName(), is(SpringSproutRepository.class.getName()));
+        assertThat(event.getMethod().getName(), is("findAll"));
+        assertThat(event.getRows(), is(springSprouts.size()));
+        assertThat(events.get(0).getOperation(), is(StatementOperation.INSERT));
+    }
+    
+    @Test
+    public void 메소드_이름으로_만든_query_의_event_받기() {
+        repository.save(firstSpringSprout);
+        repository.save(secondSpringSprout);
+        
+        final List<RepositoryOperationEvent> events = new ArrayList<RepositoryOperationEvent>();
+        RepositoryOperationListener listener = new RepositoryOperationListener() {
+            public void onOperation(RepositoryOperationEvent event) {
+                events.add(event);
+            }
+        };
+        
+        operationEvents.addListener(listener);
+        try {
+            repository.findByNameAndNickName("동욱", "ldw");
+        } finally {
+            operationEvents.removeListener(listener);
+        }
+        
+        assertThat(events.size(), is(1));
+        assertThat(events.get(0).getStatementId(), is("springSprout.findByNameAndNickName"));
+        assertThat(events.get(0).getOperation(), is(StatementOperation.SELECT));
+        assertThat(events.get(0).getRows(), is(1));
+    }
+    
+    @Test
+    public void 모아둔_쓰기를_실행한_후_메소드_이름으로_만든_query_실행() {
+        writeBehindRepository.save(firstSpringSprout);
+        
+        List<SpringSprout> springSprouts = writeBehindRepository.findByNameAndNickName("동욱", "ldw");
+        
+        assertThat(springSprouts.size(), is(1));
+        assertThat(springSprouts.get(0).getId(), is(firstSpringSprout.getId()));
+    }
+    
+    @Test
+    public void 변경된_property_만_update() {
+        repository.save(firstSpringSprout);
+        
+        final List<String> statementIds = new ArrayList<String>();
+        RepositoryOperationListener listener = new RepositoryOperationListener() {
+            public void onOperation(RepositoryOperationEvent event) {
+                if(event.getOperation() == StatementOperation.UPDATE)
+                    statementIds.add(event.getStatementId());
+            }
+        };
+        
+        operationEvents.addListener(listener);
+        try {
+            SpringSprout springSprout = repository.findOne(firstSpringSprout.getId());
+            repository.save(springSprout);
+            assertThat(statementIds.isEmpty(), is(true));
+            
+            springSprout.setNickName("arawn");
+            repository.save(springSprout);
+            assertThat(statementIds, is(Arrays.asList("springSprout.update_dirty")));
+        } finally {
+            operationEvents.removeListener(listener);
+        }
+        
+        assertThat(repository.findOne(firstSpringSprout.getId()).getNickName(), is("arawn"));
+    }
 
 }
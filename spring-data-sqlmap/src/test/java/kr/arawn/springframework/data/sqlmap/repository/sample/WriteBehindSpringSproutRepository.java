@@ -0,0 +1,15 @@
+package kr.arawn.springframework.data.sqlmap.repository.sample;
+
+import java.util.List;
+
+import kr.arawn.springframework.data.sqlmap.repository.IdAllocation;
+import kr.arawn.springframework.data.sqlmap.repository.SqlmapRepository;
+import kr.arawn.springframework.data.sqlmap.repository.WriteBehind;
+
+@IdAllocation(allocationSize = 10)
+@WriteBehind
+public interface WriteBehindSpringSproutRepository extends SqlmapRepository<SpringSprout, Long> {
+
+    List<SpringSprout> findByNameAndNickName(String name, String nickName);
+    
+}
@@ -0,0 +1,73 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.ArrayList;
+
+import kr.arawn.springframework.data.sqlmap.repository.sample.Language;
+import kr.arawn.springframework.data.sqlmap.repository.sample.SpringSprout;
+
+import org.junit.Test;
+
+public class EntityCacheTest {
+
+    @Test
+    public void 가장_오래_사용하지_않은_entity_부터_제거() {
+        EntityCache cache = new EntityCache(2, 0);
+        
+        cache.put(1L, "first", cache.getGeneration());
+        cache.put(2L, "second", cache.getGeneration());
+        cache.get(1L);
+        cache.put(3L, "third", cache.getGeneration());
+        
+        assertThat(cache.get(1L), is((Object) "first"));
+        assertThat(cache.get(2L), is(nullValue()));
+        assertThat(cache.get(3L), is((Object) "third"));
+        assertThat(cache.getEvictionCount(), is(1L));
+        assertThat(cache.getHitCount(), is(3L));
+        assertThat(cache.getMissCount(), is(1L));
+    }
+    
+    @Test
+    public void 조회할_때마다_새_복사본() {
+        EntityCache cache = new EntityCache(10, 0);
+        SpringSprout springSprout = new SpringSprout("동욱", "ldw");
+        springSprout.setLanguages(new ArrayList<Language>());
+        
+        cache.put(1L, springSprout, cache.getGeneration());
+        springSprout.setNickName("arawn");
+        
+        SpringSprout first = (SpringSprout) cache.get(1L);
+        first.setName("기선");
+        first.getLanguages().add(new Language());
+        SpringSprout second = (SpringSprout) cache.get(1L);
+        
+        assertThat(first == second, is(false));
+        assertThat(second.getName(), is("동욱"));
+        assertThat(second.getNickName(), is("ldw"));
+        assertThat(second.getLanguages().isEmpty(), is(true));
+    }
+    
+    @Test
+    public void 조회_중에_무효화되면_저장하지_않음() {
+        EntityCache cache = new EntityCache(10, 0);
+        
+        long generation = cache.getGeneration();
+        cache.evict(1L);
+        cache.put(1L, "stale", generation);
+        
+        assertThat(cache.get(1L), is(nullValue()));
+    }
+    
+    @Test
+    public void 유지_시간이_지나면_만료() throws Exception {
+        EntityCache cache = new EntityCache(10, 1);
+        
+        cache.put(1L, "first", cache.getGeneration());
+        Thread.sleep(10);
+        
+        assertThat(cache.get(1L), is(nullValue()));
+    }
+    
+}
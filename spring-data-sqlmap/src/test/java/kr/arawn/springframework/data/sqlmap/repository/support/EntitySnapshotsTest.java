@@ -0,0 +1,74 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import kr.arawn.springframework.data.sqlmap.repository.factory.SqlmapEntityInformation;
+import kr.arawn.springframework.data.sqlmap.repository.sample.Language;
+import kr.arawn.springframework.data.sqlmap.repository.sample.SpringSprout;
+
+import org.junit.Test;
+
+public class EntitySnapshotsTest {
+    
+    private EntitySnapshots snapshots = new EntitySnapshots(
+            new SqlmapEntityInformation<SpringSprout, Long>(SpringSprout.class), 2);
+
+    @Test
+    public void 변경된_property_만_찾기() {
+        SpringSprout springSprout = springSprout(1L, "동욱", "ldw");
+        snapshots.takeAll(Collections.singletonList(springSprout));
+        
+        assertThat(snapshots.getDirtyProperties(springSprout).isEmpty(), is(true));
+        
+        springSprout.setNickName("arawn");
+        springSprout.setLanguages(Arrays.asList(new Language()));
+        Map<String, Object> dirty = snapshots.getDirtyProperties(springSprout);
+        
+        assertThat(dirty.size(), is(1));
+        assertThat(dirty.get("nickName"), is((Object) "arawn"));
+    }
+    
+    @Test
+    public void snapshot_이_없으면_null() {
+        SpringSprout springSprout = springSprout(1L, "동욱", "ldw");
+        
+        assertThat(snapshots.getDirtyProperties(springSprout), is(nullValue()));
+        
+        snapshots.take(springSprout);
+        snapshots.take(springSprout(2L, "기선", "bks"));
+        snapshots.take(springSprout(3L, "연희", "jyh"));
+        
+        assertThat(snapshots.size(), is(2));
+        assertThat(snapshots.getDirtyProperties(springSprout), is(nullValue()));
+    }
+    
+    @Test
+    public void 같은_id_의_다른_인스턴스와_비교하지_않는다() {
+        SpringSprout first = springSprout(1L, "동욱", "ldw");
+        SpringSprout second = springSprout(1L, "동욱", "arawn");
+        snapshots.take(first);
+        snapshots.take(second);
+        
+        first.setName("arawn");
+        
+        assertThat(snapshots.getDirtyProperties(first).keySet(), is(Collections.singleton("name")));
+        assertThat(snapshots.getDirtyProperties(second).isEmpty(), is(true));
+        assertThat(snapshots.getDirtyProperties(springSprout(1L, "동욱", "ldw")), is(nullValue()));
+        
+        snapshots.evict(1L);
+        
+        assertThat(snapshots.size(), is(0));
+    }
+    
+    private SpringSprout springSprout(Long id, String name, String nickName) {
+        SpringSprout springSprout = new SpringSprout(name, nickName);
+        springSprout.setId(id);
+        return springSprout;
+    }
+
+}
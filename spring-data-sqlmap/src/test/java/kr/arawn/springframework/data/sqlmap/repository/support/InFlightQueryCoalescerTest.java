@@ -0,0 +1,82 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class InFlightQueryCoalescerTest {
+
+    @Test
+    public void 동시에_실행된_같은_조회는_한번만_실행() throws Exception {
+        final InFlightQueryCoalescer coalescer = new InFlightQueryCoalescer();
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Object[] results = new Object[2];
+        
+        Thread leader = new Thread(new Runnable() {
+            public void run() {
+                results[0] = coalescer.execute("springSprout.findOne", 1L, new InFlightQueryCoalescer.Query() {
+                    public Object execute() {
+                        executions.incrementAndGet();
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "arawn";
+                    }
+                });
+            }
+        });
+        leader.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        
+        Thread follower = new Thread(new Runnable() {
+            public void run() {
+                results[1] = coalescer.execute("springSprout.findOne", 1L, new InFlightQueryCoalescer.Query() {
+                    public Object execute() {
+                        executions.incrementAndGet();
+                        return "other";
+                    }
+                });
+            }
+        });
+        follower.start();
+        
+        while(follower.getState() != Thread.State.WAITING && follower.isAlive()) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        leader.join(5000);
+        follower.join(5000);
+        
+        assertThat(executions.get(), is(1));
+        assertThat(results[0], is((Object) "arawn"));
+        assertThat(results[1], is((Object) "arawn"));
+        assertThat(coalescer.getSharedCount(), is(1L));
+    }
+    
+    @Test
+    public void 끝난_조회는_다시_실행() {
+        InFlightQueryCoalescer coalescer = new InFlightQueryCoalescer();
+        final AtomicInteger executions = new AtomicInteger();
+        InFlightQueryCoalescer.Query query = new InFlightQueryCoalescer.Query() {
+            public Object execute() {
+                return executions.incrementAndGet();
+            }
+        };
+        
+        coalescer.execute("springSprout.findOne", 1L, query);
+        coalescer.execute("springSprout.findOne", 1L, query);
+        
+        assertThat(executions.get(), is(2));
+    }
+    
+}
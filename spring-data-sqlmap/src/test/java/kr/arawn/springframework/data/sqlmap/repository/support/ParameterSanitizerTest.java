@@ -0,0 +1,52 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import kr.arawn.springframework.data.sqlmap.repository.sample.SpringSprout;
+
+import org.junit.Test;
+
+public class ParameterSanitizerTest {
+    
+    private ParameterSanitizer sanitizer = new ParameterSanitizer();
+
+    @Test
+    public void 민감한_값은_가리기() {
+        Map<String, Object> parameter = new LinkedHashMap<String, Object>();
+        parameter.put("name", "arawn");
+        parameter.put("password", "1234");
+        parameter.put("offset", 10);
+        
+        assertThat(sanitizer.sanitize(parameter), is("{name='arawn', password=****, offset=10}"));
+        assertThat(sanitizer.sanitize(null), is("null"));
+    }
+    
+    @Test
+    public void 긴_값은_잘라내기() {
+        List<Long> ids = new ArrayList<Long>();
+        for(long i = 0; i < 20; i++) {
+            ids.add(i);
+        }
+        
+        assertThat(sanitizer.sanitize(ids), is("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9, ...(20)]"));
+        
+        sanitizer.setMaxLength(3);
+        assertThat(sanitizer.sanitize("arawn"), is("'ara...(5)'"));
+    }
+    
+    @Test
+    public void bean_은_property_로_펼치기() {
+        String sanitized = sanitizer.sanitize(new SpringSprout("동욱", "ldw"));
+        
+        assertTrue(sanitized.startsWith("SpringSprout{"));
+        assertTrue(sanitized.contains("name='동욱'"));
+        assertTrue(sanitized.contains("nickName='ldw'"));
+    }
+
+}
@@ -0,0 +1,77 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import kr.arawn.springframework.data.sqlmap.repository.Keyset;
+import kr.arawn.springframework.data.sqlmap.repository.sample.SpringSprout;
+
+import org.junit.Test;
+
+public class QueryResultCacheTest {
+
+    @Test
+    public void statementId_와_parameter_로_조회() {
+        QueryResultCache cache = new QueryResultCache();
+        
+        cache.put("springSprout.findByName", "동욱", Arrays.asList("동욱"), 60000, cache.getGeneration());
+        
+        assertThat(cache.get("springSprout.findByName", "동욱"), is(notNullValue()));
+        assertThat(cache.get("springSprout.findByName", "기선"), is(nullValue()));
+        assertThat(cache.get("springSprout.findByNickName", "동욱"), is(nullValue()));
+    }
+    
+    @Test
+    public void 같은_값의_Keyset_으로_조회() {
+        QueryResultCache cache = new QueryResultCache();
+        
+        cache.put("springSprout.findAll_Keyset", new Keyset(10L, 20), Arrays.asList("동욱"), 60000, cache.getGeneration());
+        
+        assertThat(cache.get("springSprout.findAll_Keyset", new Keyset(10L, 20)), is(notNullValue()));
+        assertThat(cache.get("springSprout.findAll_Keyset", new Keyset(10L, 20).next(30L)), is(nullValue()));
+        assertThat(cache.get("springSprout.findAll_Keyset", new Keyset("name", 10L, 20)), is(nullValue()));
+    }
+    
+    @Test
+    public void 최대_무게를_넘으면_오래된_결과부터_제거() {
+        QueryResultCache cache = new QueryResultCache(3);
+        
+        cache.put("springSprout.findByName", "a", Arrays.asList(1, 2), 60000, cache.getGeneration());
+        cache.put("springSprout.findByName", "b", Arrays.asList(3, 4), 60000, cache.getGeneration());
+        
+        assertThat(cache.get("springSprout.findByName", "a"), is(nullValue()));
+        assertThat(cache.get("springSprout.findByName", "b"), is(notNullValue()));
+        assertThat(cache.getWeight(), is(2L));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void 반환된_entity_를_변경해도_캐시는_그대로() {
+        QueryResultCache cache = new QueryResultCache();
+        SpringSprout springSprout = new SpringSprout("동욱", "ldw");
+        
+        List<SpringSprout> result = (List<SpringSprout>) cache.put("springSprout.findByName", "동욱", Arrays.asList(springSprout), 60000, cache.getGeneration());
+        result.get(0).setNickName("arawn");
+        
+        List<SpringSprout> hit = (List<SpringSprout>) cache.get("springSprout.findByName", "동욱");
+        hit.get(0).setNickName("whiteship");
+        
+        List<SpringSprout> next = (List<SpringSprout>) cache.get("springSprout.findByName", "동욱");
+        assertThat(next.get(0).getNickName(), is("ldw"));
+        assertThat(next.get(0) == hit.get(0), is(false));
+    }
+    
+    @Test(expected = UnsupportedOperationException.class)
+    public void 캐시된_List_는_변경할_수_없음() {
+        QueryResultCache cache = new QueryResultCache();
+        
+        @SuppressWarnings("unchecked")
+        List<Integer> result = (List<Integer>) cache.put("springSprout.findAll", null, Arrays.asList(1, 2), 60000, cache.getGeneration());
+        result.set(0, 3);
+    }
+    
+}
@@ -0,0 +1,52 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+
+public class StatementMetricsTest {
+
+    @Test
+    public void statement_별로_기록하기() {
+        StatementMetrics metrics = new StatementMetrics();
+        for(int i = 1; i <= 100; i++) {
+            metrics.record("springSprout.findAll", i * 1000000L, 2, i % 10 == 0);
+        }
+        metrics.record("springSprout.count", 500000L, 1, false);
+        
+        StatementStatistics statistics = metrics.getStatistics("springSprout.findAll");
+        assertThat(statistics.getCallCount(), is(100L));
+        assertThat(statistics.getErrorCount(), is(10L));
+        assertThat(statistics.getRowCount(), is(200L));
+        assertThat(statistics.getMaxTime(), is(100000000L));
+        assertTrue(statistics.getPercentile(50) >= 50000000L);
+        assertTrue(statistics.getPercentile(50) < 50000000L * 1.25);
+        assertThat(statistics.getPercentile(100), is(100000000L));
+        
+        assertThat(metrics.getStatementIds().length, is(2));
+        assertThat(metrics.getStatementIds()[0], is("springSprout.count"));
+        assertThat(metrics.getCallCount("springSprout.findOne"), is(0L));
+        
+        metrics.reset();
+        assertThat(statistics.getCallCount(), is(0L));
+        assertThat(statistics.getPercentile(99), is(0L));
+    }
+    
+    @Test
+    public void entity_캐시_통계_노출() {
+        StatementMetrics metrics = new StatementMetrics();
+        EntityCache entityCache = new EntityCache(10, 0);
+        metrics.registerEntityCache("SpringSproutRepository", entityCache);
+        
+        entityCache.put(1L, "동욱", entityCache.getGeneration());
+        entityCache.get(1L);
+        entityCache.get(2L);
+        
+        assertThat(metrics.getEntityCacheNames()[0], is("SpringSproutRepository"));
+        assertThat(metrics.getEntityCacheHitCount("SpringSproutRepository"), is(1L));
+        assertThat(metrics.getEntityCacheMissCount("SpringSproutRepository"), is(1L));
+        assertThat(metrics.getEntityCacheEvictionCount("SpringSproutRepository"), is(0L));
+    }
+    
+}
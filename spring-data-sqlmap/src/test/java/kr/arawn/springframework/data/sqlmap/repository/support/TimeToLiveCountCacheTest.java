@@ -0,0 +1,76 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TimeToLiveCountCacheTest {
+
+    @Test
+    public void timeToLive_가_지나기_전에는_저장된_값_반환() {
+        TimeToLiveCountCache cache = new TimeToLiveCountCache(60000);
+        
+        cache.put("springSprout.count", 10L);
+        
+        assertThat(cache.get("springSprout.count"), is(10L));
+        assertThat(cache.get("language.count"), is(nullValue()));
+    }
+    
+    @Test
+    public void timeToLive_가_지나면_만료() throws InterruptedException {
+        TimeToLiveCountCache cache = new TimeToLiveCountCache(50);
+        
+        cache.put("springSprout.count", 10L);
+        Thread.sleep(100);
+        
+        assertThat(cache.get("springSprout.count"), is(nullValue()));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void timeToLive_는_0_보다_커야함() {
+        new TimeToLiveCountCache(0);
+    }
+    
+    @Test
+    public void invalidate_하면_비우기() {
+        TimeToLiveCountCache cache = new TimeToLiveCountCache(60000);
+        SqlmapRepositoryContext context = new SqlmapRepositoryContext();
+        context.setCountCache(cache);
+        
+        cache.put("springSprout.count", 10L);
+        context.invalidate(Arrays.asList(1L));
+        assertThat(cache.get("springSprout.count"), is(nullValue()));
+        
+        cache.put("springSprout.count", 10L);
+        context.invalidateAll();
+        assertThat(cache.get("springSprout.count"), is(nullValue()));
+    }
+    
+    @Test
+    public void 트랜잭션이_끝나면_한번_더_비우기() {
+        TimeToLiveCountCache cache = new TimeToLiveCountCache(60000);
+        SqlmapRepositoryContext context = new SqlmapRepositoryContext();
+        context.setCountCache(cache);
+        
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            context.invalidate(Arrays.asList(1L));
+            
+            // 트랜잭션이 끝나기 전에 다른 쓰레드가 이전 값을 다시 넣은 경우
+            cache.put("springSprout.count", 10L);
+            for(TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        
+        assertThat(cache.get("springSprout.count"), is(nullValue()));
+    }
+    
+}
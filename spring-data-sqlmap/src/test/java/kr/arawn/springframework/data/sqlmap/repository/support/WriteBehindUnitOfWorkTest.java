@@ -0,0 +1,77 @@
+package kr.arawn.springframework.data.sqlmap.repository.support;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+public class WriteBehindUnitOfWorkTest {
+    
+    private List<List<Object>> flushed = new ArrayList<List<Object>>();
+    private WriteBehindUnitOfWork unitOfWork = new WriteBehindUnitOfWork(new WriteBehindUnitOfWork.Flusher() {
+        public void flush(List<Object> inserts, List<Object> updates, List<Object> deletes) {
+            flushed.add(inserts);
+            flushed.add(updates);
+            flushed.add(deletes);
+        }
+    });
+    
+    @Before
+    public void 트랜잭션_동기화_시작() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+    
+    @After
+    public void 트랜잭션_동기화_종료() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(unitOfWork);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void 같은_id_의_save_는_하나로_합쳐서_커밋_전에_실행() {
+        unitOfWork.save(1L, "arawn", true);
+        unitOfWork.save(1L, "outsider", false);
+        unitOfWork.save(2L, "keesun", false);
+        unitOfWork.delete(3L, "whiteship");
+        
+        assertThat(unitOfWork.getPendingWrite(1L).getOperation(), is(StatementOperation.INSERT));
+        assertThat(flushed.isEmpty(), is(true));
+        
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        
+        assertThat(flushed.get(0), is(Arrays.asList((Object) "outsider")));
+        assertThat(flushed.get(1), is(Arrays.asList((Object) "keesun")));
+        assertThat(flushed.get(2), is(Arrays.asList((Object) "whiteship")));
+        assertThat(unitOfWork.getPendingWrite(1L), is(nullValue()));
+    }
+    
+    @Test
+    public void insert_전에_delete_하면_실행하지_않기() {
+        Object entity = new Object();
+        unitOfWork.save(null, entity, true);
+        unitOfWork.delete(null, entity);
+        
+        unitOfWork.flush();
+        
+        assertThat(flushed.isEmpty(), is(true));
+    }
+    
+    @Test
+    public void 트랜잭션_동기화가_없으면_모으지_않기() {
+        TransactionSynchronizationManager.clearSynchronization();
+        try {
+            assertThat(unitOfWork.isActive(), is(false));
+        } finally {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+    }
+
+}
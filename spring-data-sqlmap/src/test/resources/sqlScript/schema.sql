@@ -1,12 +1,15 @@
 DROP TABLE SPRINGSPROUT_LANGUAGE IF EXISTS;
 DROP TABLE SPRINGSPROUT IF EXISTS;
 DROP TABLE LANGUAGE IF EXISTS;
+DROP SEQUENCE SPRINGSPROUT_SEQ IF EXISTS;
 
 
 CREATE TABLE SPRINGSPROUT ( ID BIGINT GENERATED BY DEFAULT AS IDENTITY,
 NAME VARCHAR NOT NULL,
 NICKNAME VARCHAR NOT NULL);
 
+CREATE SEQUENCE SPRINGSPROUT_SEQ START WITH 1 INCREMENT BY 10;
+
 CREATE TABLE LANGUAGE ( ID BIGINT GENERATED BY DEFAULT AS IDENTITY,
 NAME VARCHAR NOT NULL);
 